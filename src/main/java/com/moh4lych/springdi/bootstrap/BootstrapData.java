@@ -2,108 +2,150 @@ package com.moh4lych.springdi.bootstrap;
 
 import com.moh4lych.springdi.entities.Beer;
 import com.moh4lych.springdi.entities.Customer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapper;
 import com.moh4lych.springdi.model.BeerCSVRecord;
 import com.moh4lych.springdi.model.BeerStyle;
 import com.moh4lych.springdi.repositories.BeerRepository;
 import com.moh4lych.springdi.repositories.CustomerRepository;
+import com.moh4lych.springdi.services.BeerBatchWriter;
+import com.moh4lych.springdi.services.BeerCSVParallelImporter;
 import com.moh4lych.springdi.services.BeerCSVService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import lombok.val;
-import org.apache.commons.lang3.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ResourceUtils;
+import org.springframework.util.unit.DataSize;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class BootstrapData implements CommandLineRunner {
     private final BeerRepository beerRepository;
     private final CustomerRepository customerRepository;
     private final BeerCSVService beerCSVService;
+    private final BeerCSVRecordMapper beerCSVRecordMapper;
+    private final BeerBatchWriter beerBatchWriter;
+    private final BeerCSVParallelImporter beerCSVParallelImporter;
+
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+
+    @Value("${springdi.bootstrap.incremental-csv-reload:false}")
+    private boolean incrementalCSVReload;
+
+    @Value("${springdi.bootstrap.csv-file:classpath:csvdata/beer.csv}")
+    private String csvFile = "classpath:csvdata/beer.csv";
+
+    @Value("${springdi.bootstrap.parallel-import-threshold:64MB}")
+    private DataSize parallelImportThreshold = DataSize.ofMegabytes(64);
 
     @Override
     @Transactional
     public void run(String... args) throws Exception {
-        loadBeerData();
-        loadCSVData();
+        long beerCount = beerRepository.count();
+
+        if (beerCount == 0) {
+            loadBeerData();
+        }
+        if (beerCount < 10) {
+            loadCSVData();
+        } else if (incrementalCSVReload) {
+            reloadCSVData();
+        }
         loadCustomerData();
     }
 
     private void loadCSVData() throws FileNotFoundException {
-        val i = beerRepository.count();
-        if (beerRepository.count() < 10) {
-            File file = ResourceUtils.getFile("classpath:csvdata/beer.csv");
-
-            List<BeerCSVRecord> list = beerCSVService.convertCSV(file);
-            list.forEach(beerCSVRecord -> {
-                BeerStyle beerStyle = switch (beerCSVRecord.getStyle()) {
-                    case "American Pale Lager" -> BeerStyle.LAGER;
-                    case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
-                            BeerStyle.ALE;
-                    case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
-                    case "American Porter" -> BeerStyle.PORTER;
-                    case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
-                    case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
-                    case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
-                    case "English Pale Ale" -> BeerStyle.PALE_ALE;
-                    default -> BeerStyle.PILSNER;
-                };
-                beerRepository.save(Beer.builder()
-                        .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
-                        .beerStyle(beerStyle)
-                        .price(BigDecimal.TEN)
-                        .upc(beerCSVRecord.getRow().toString())
-                        .quantityOnHand(beerCSVRecord.getCount())
-                        .build());
-            });
+        File file = ResourceUtils.getFile(csvFile);
+
+        if (file.length() >= parallelImportThreshold.toBytes()) {
+            beerCSVParallelImporter.importCSV(file);
+            return;
         }
-    }
 
-    private void loadBeerData() {
-        if (beerRepository.count() == 0) {
-            Beer beer1 = Beer.builder()
-                    .beerName("Galaxy Cat")
-                    .beerStyle(BeerStyle.PALE_ALE)
-                    .upc("12356")
-                    .price(new BigDecimal("12.99"))
-                    .quantityOnHand(122)
-                    .createdDate(LocalDateTime.now())
-                    .updateDate(LocalDateTime.now())
-                    .build();
+        long start = System.nanoTime();
 
-            Beer beer2 = Beer.builder()
-                    .beerName("Crank")
-                    .beerStyle(BeerStyle.PALE_ALE)
-                    .upc("12356222")
-                    .price(new BigDecimal("11.99"))
-                    .quantityOnHand(392)
-                    .createdDate(LocalDateTime.now())
-                    .updateDate(LocalDateTime.now())
-                    .build();
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(file)) {
+            long rows = beerBatchWriter.persistAll(records.map(beerCSVRecordMapper::beerCsvRecordToBeer));
+            long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
 
-            Beer beer3 = Beer.builder()
-                    .beerName("Sunshine City")
-                    .beerStyle(BeerStyle.IPA)
-                    .upc("12356")
-                    .price(new BigDecimal("13.99"))
-                    .quantityOnHand(144)
-                    .createdDate(LocalDateTime.now())
-                    .updateDate(LocalDateTime.now())
-                    .build();
+            log.info("Loaded {} beers from {} in {} ms ({} rows/s)", rows, file.getName(), elapsedMillis,
+                    rows * 1000 / elapsedMillis);
+        }
+    }
 
-            beerRepository.save(beer1);
-            beerRepository.save(beer2);
-            beerRepository.save(beer3);
+    private void reloadCSVData() throws FileNotFoundException {
+        File file = ResourceUtils.getFile(csvFile);
+        long start = System.nanoTime();
+        long rows = 0;
+        long inserted = 0;
+        long updated = 0;
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(file)) {
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+
+            while (iterator.hasNext()) {
+                List<Beer> chunk = new ArrayList<>(UPSERT_CHUNK_SIZE);
+                while (iterator.hasNext() && chunk.size() < UPSERT_CHUNK_SIZE) {
+                    chunk.add(beerCSVRecordMapper.beerCsvRecordToBeer(iterator.next()));
+                }
+
+                BeerBatchWriter.UpsertResult result = beerBatchWriter.upsertByUpc(chunk);
+                rows += chunk.size();
+                inserted += result.inserted();
+                updated += result.updatedIds().size();
+            }
         }
 
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        log.info("Reloaded {} beers from {} in {} ms ({} rows/s): {} inserted, {} updated", rows, file.getName(),
+                elapsedMillis, rows * 1000 / elapsedMillis, inserted, updated);
+    }
+
+    private void loadBeerData() {
+        Beer beer1 = Beer.builder()
+                .beerName("Galaxy Cat")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .price(new BigDecimal("12.99"))
+                .quantityOnHand(122)
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+
+        Beer beer2 = Beer.builder()
+                .beerName("Crank")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356222")
+                .price(new BigDecimal("11.99"))
+                .quantityOnHand(392)
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+
+        Beer beer3 = Beer.builder()
+                .beerName("Sunshine City")
+                .beerStyle(BeerStyle.IPA)
+                .upc("12356")
+                .price(new BigDecimal("13.99"))
+                .quantityOnHand(144)
+                .createdDate(LocalDateTime.now())
+                .updateDate(LocalDateTime.now())
+                .build();
+
+        beerRepository.saveAll(Arrays.asList(beer1, beer2, beer3));
     }
 
     private void loadCustomerData() {
@@ -1,18 +1,44 @@
 package com.moh4lych.springdi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.moh4lych.springdi.model.BeerBatchError;
+import com.moh4lych.springdi.model.BeerBatchResult;
 import com.moh4lych.springdi.model.BeerDTO;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.services.BeerService;
+import com.opencsv.CSVWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.UUID;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -21,15 +47,37 @@ import java.util.UUID;
 public class BeerController {
     public static final String BEER_PATH = "/api/v1/beer/";
     public static final String BEER_PATH_ID = "{beerId}";
+    public static final String BEER_PATH_SLICE = "slice";
+    public static final String BEER_PATH_EXPORT = "export";
+    public static final String BEER_PATH_EXPORT_CSV = "export.csv";
+    public static final String BEER_PATH_BATCH = "batch";
+    public static final int MAX_BATCH_SIZE = 1000;
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final String[] EXPORT_CSV_HEADER = {"id", "version", "beerName", "beerStyle", "upc",
+            "quantityOnHand", "price", "createdDate", "updateDate"};
 
     private final BeerService beerService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @PatchMapping(BEER_PATH_ID)
-    public ResponseEntity patchById(@PathVariable("beerId") UUID beerId, @RequestBody BeerDTO beerDTO) {
+    public ResponseEntity patchById(@PathVariable("beerId") UUID beerId,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @RequestBody BeerDTO beerDTO) {
+        if (StringUtils.hasText(beerDTO.getBeerName())) {
+            Set<ConstraintViolation<BeerDTO>> violations = validator.validateProperty(beerDTO, "beerName");
 
-        beerService.patchBeerById(beerId, beerDTO).orElseThrow(NotFoundException::new);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+        }
 
-        return new ResponseEntity(HttpStatus.NO_CONTENT);
+        BeerDTO patchedBeerDTO = beerService.patchBeerById(beerId, beerDTO, parseVersion(ifMatch))
+                .orElseThrow(NotFoundException::new);
+
+        return new ResponseEntity(versionHeaders(patchedBeerDTO), HttpStatus.NO_CONTENT);
     }
 
     @DeleteMapping(BEER_PATH_ID)
@@ -40,10 +88,13 @@ public class BeerController {
     }
 
     @PutMapping(BEER_PATH_ID)
-    public ResponseEntity updateById(@PathVariable("beerId") UUID beerId, @Validated @RequestBody BeerDTO beerDTO) {
-        beerService.updateBeerById(beerId, beerDTO).orElseThrow(NotFoundException::new);
+    public ResponseEntity updateById(@PathVariable("beerId") UUID beerId,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                     @Validated @RequestBody BeerDTO beerDTO) {
+        BeerDTO updatedBeerDTO = beerService.updateBeerById(beerId, beerDTO, parseVersion(ifMatch))
+                .orElseThrow(NotFoundException::new);
 
-        return new ResponseEntity(HttpStatus.NO_CONTENT);
+        return new ResponseEntity(versionHeaders(updatedBeerDTO), HttpStatus.NO_CONTENT);
     }
 
     @PostMapping
@@ -56,20 +107,223 @@ public class BeerController {
         return new ResponseEntity(headers, HttpStatus.CREATED);
     }
 
+    @PostMapping(BEER_PATH_BATCH)
+    public ResponseEntity<BeerBatchResult> handleBatchPost(@RequestBody List<BeerDTO> beerDTOs) {
+        if (beerDTOs.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch may contain at most " + MAX_BATCH_SIZE + " beers");
+        }
+
+        List<Integer> validIndexes = new ArrayList<>(beerDTOs.size());
+        List<BeerBatchError> errors = new ArrayList<>();
+
+        for (int i = 0; i < beerDTOs.size(); i++) {
+            Map<String, String> fieldErrors = new HashMap<>();
+            validator.validate(beerDTOs.get(i)).forEach(violation ->
+                    fieldErrors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+
+            if (beerDTOs.get(i).getId() != null) {
+                fieldErrors.put("id", "must not be set when creating a beer");
+            }
+
+            if (fieldErrors.isEmpty()) {
+                validIndexes.add(i);
+            } else {
+                errors.add(BeerBatchError.builder().index(i).errors(fieldErrors).build());
+            }
+        }
+
+        List<UUID> createdIds = saveValidBeers(beerDTOs, validIndexes, errors);
+        errors.sort(Comparator.comparingInt(BeerBatchError::getIndex));
+
+        BeerBatchResult result = BeerBatchResult.builder()
+                .createdIds(createdIds)
+                .errors(errors)
+                .build();
+
+        return new ResponseEntity<>(result, errors.isEmpty() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    /**
+     * Saves the valid beers in one batch. If the batch is rolled back the beers are retried one at a time so
+     * each failure is reported against its own index instead of failing the whole request.
+     */
+    private List<UUID> saveValidBeers(List<BeerDTO> beerDTOs, List<Integer> validIndexes,
+                                      List<BeerBatchError> errors) {
+        if (validIndexes.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            return beerService.saveNewBeers(validIndexes.stream().map(beerDTOs::get).toList())
+                    .stream().map(BeerDTO::getId).toList();
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} beers failed, saving them one at a time", validIndexes.size(), e);
+        }
+
+        List<UUID> createdIds = new ArrayList<>(validIndexes.size());
+        for (Integer index : validIndexes) {
+            try {
+                createdIds.add(beerService.saveNewBeer(beerDTOs.get(index)).getId());
+            } catch (DataAccessException e) {
+                log.warn("Could not save beer at index {}", index, e);
+                errors.add(BeerBatchError.builder().index(index)
+                        .errors(Map.of("beer", "could not be saved")).build());
+            }
+        }
+
+        return createdIds;
+    }
+
     @GetMapping
     public Page<BeerDTO> listBeers(@RequestParam(required = false) String beerName
             , @RequestParam(required = false) BeerStyle beerStyle
             , @RequestParam(required = false) Integer pageNumber
-            , @RequestParam(required = false) Integer pageSize) {
+            , @RequestParam(required = false) Integer pageSize
+            , WebRequest webRequest) {
+        String catalogVersion = beerService.getCatalogVersion();
+
+        if (catalogVersion != null && webRequest.checkNotModified(catalogVersion)) {
+            return null;
+        }
+
         return beerService.listBeers(beerName, beerStyle, pageNumber, pageSize);
     }
 
+    @GetMapping(BEER_PATH_SLICE)
+    public Slice<BeerDTO> listBeersSlice(@RequestParam(required = false) String beerName
+            , @RequestParam(required = false) BeerStyle beerStyle
+            , @RequestParam(required = false) Integer pageNumber
+            , @RequestParam(required = false) Integer pageSize) {
+        return beerService.listBeersSlice(beerName, beerStyle, pageNumber, pageSize);
+    }
+
+    @GetMapping(params = "after")
+    public KeysetPage<BeerDTO> listBeersAfter(@RequestParam(required = false) String beerName
+            , @RequestParam(required = false) BeerStyle beerStyle
+            , @RequestParam(required = false) KeysetCursor after
+            , @RequestParam(required = false) Integer pageSize
+            , @RequestParam(defaultValue = "false") boolean count) {
+        return beerService.listBeersAfter(beerName, beerStyle, after, pageSize, count);
+    }
+
+    @GetMapping(value = BEER_PATH_EXPORT, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers(@RequestParam(required = false) BeerStyle beerStyle) {
+        ObjectWriter writer = objectMapper.writerFor(BeerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null)) {
+                int[] written = {0};
+
+                beerService.exportBeers(beerStyle, beerDTO -> {
+                    try {
+                        writer.writeValue(generator, beerDTO);
+                        generator.writeRaw('\n');
+
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(BEER_PATH_EXPORT_CSV)
+    public ResponseEntity<StreamingResponseBody> exportBeersCsv(
+            @RequestParam(required = false) BeerStyle beerStyle,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE, true) : outputStream;
+
+            try (CSVWriter csvWriter = new CSVWriter(new BufferedWriter(
+                    new OutputStreamWriter(target, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE))) {
+                csvWriter.writeNext(EXPORT_CSV_HEADER, false);
+                int[] written = {0};
+
+                beerService.exportBeers(beerStyle, beerDTO -> {
+                    csvWriter.writeNext(toCsvRow(beerDTO), false);
+
+                    if (++written[0] % EXPORT_FLUSH_INTERVAL == 1) {
+                        try {
+                            csvWriter.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"beers.csv\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(body);
+    }
+
     @GetMapping(BEER_PATH_ID)
-    public BeerDTO getBeerById(@PathVariable("beerId") UUID beerId) {
+    public BeerDTO getBeerById(@PathVariable("beerId") UUID beerId, WebRequest webRequest) {
 
         log.debug("Get Beer by Id - in controller");
 
-        return beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+        BeerDTO beerDTO = beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+
+        if (beerDTO.getVersion() != null && webRequest.checkNotModified(beerDTO.getVersion().toString())) {
+            return null;
+        }
+
+        return beerDTO;
+    }
+
+    private static HttpHeaders versionHeaders(BeerDTO beerDTO) {
+        HttpHeaders headers = new HttpHeaders();
+
+        if (beerDTO.getVersion() != null) {
+            headers.setETag("\"" + beerDTO.getVersion() + "\"");
+        }
+
+        return headers;
+    }
+
+    private static String[] toCsvRow(BeerDTO beerDTO) {
+        return new String[]{
+                Objects.toString(beerDTO.getId(), ""),
+                Objects.toString(beerDTO.getVersion(), ""),
+                Objects.toString(beerDTO.getBeerName(), ""),
+                Objects.toString(beerDTO.getBeerStyle(), ""),
+                Objects.toString(beerDTO.getUpc(), ""),
+                Objects.toString(beerDTO.getQuantityOnHand(), ""),
+                Objects.toString(beerDTO.getPrice(), ""),
+                Objects.toString(beerDTO.getCreatedDate(), ""),
+                Objects.toString(beerDTO.getUpdateDate(), "")
+        };
+    }
+
+    private static Integer parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.equals("*")) {
+            return null;
+        }
+
+        try {
+            return Integer.valueOf(ifMatch.replace("\"", "").trim());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Unsupported If-Match: " + ifMatch);
+        }
     }
 
 }
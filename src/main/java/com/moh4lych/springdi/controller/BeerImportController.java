@@ -0,0 +1,39 @@
+package com.moh4lych.springdi.controller;
+
+import com.moh4lych.springdi.model.BeerImportJobDTO;
+import com.moh4lych.springdi.services.BeerImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(BeerImportController.BEER_IMPORT_PATH)
+public class BeerImportController {
+    public static final String BEER_IMPORT_PATH = "/api/v1/beer/import";
+    public static final String BEER_IMPORT_PATH_ID = "/{jobId}";
+
+    private final BeerImportService beerImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BeerImportJobDTO> startImport(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(defaultValue = "false") boolean incremental) {
+        BeerImportJobDTO job = beerImportService.startImport(file, incremental);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Location", BEER_IMPORT_PATH + "/" + job.getId().toString());
+
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(BEER_IMPORT_PATH_ID)
+    public BeerImportJobDTO getImportJob(@PathVariable("jobId") UUID jobId) {
+        return beerImportService.getImportJob(jobId).orElseThrow(NotFoundException::new);
+    }
+}
@@ -0,0 +1,32 @@
+package com.moh4lych.springdi.controller;
+
+import com.moh4lych.springdi.model.BeerOrderCreateDTO;
+import com.moh4lych.springdi.model.BeerOrderDTO;
+import com.moh4lych.springdi.services.BeerOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequiredArgsConstructor
+@RestController
+public class BeerOrderController {
+    public static final String BEER_ORDER_PATH = "/api/v1/order";
+
+    private final BeerOrderService beerOrderService;
+
+    @PostMapping(BEER_ORDER_PATH)
+    public ResponseEntity<BeerOrderDTO> placeOrder(@Validated @RequestBody BeerOrderCreateDTO beerOrderCreateDTO) {
+        BeerOrderDTO savedBeerOrder = beerOrderService.placeOrder(beerOrderCreateDTO)
+                .orElseThrow(NotFoundException::new);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Location", BEER_ORDER_PATH + "/" + savedBeerOrder.getId().toString());
+
+        return new ResponseEntity<>(savedBeerOrder, headers, HttpStatus.CREATED);
+    }
+}
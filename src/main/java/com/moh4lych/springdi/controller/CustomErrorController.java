@@ -1,11 +1,16 @@
 package com.moh4lych.springdi.controller;
 
+import com.moh4lych.springdi.services.OutOfStockException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +29,17 @@ public class CustomErrorController {
         return ResponseEntity.badRequest().body(errorList);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<?> constraintViolationHandler(ConstraintViolationException ex) {
+        List<Map<String, String>> errorList = ex.getConstraintViolations().stream().map(violation -> {
+            Map<String, String> map = new HashMap<>();
+            map.put(violation.getPropertyPath().toString(), violation.getMessage());
+            return map;
+        }).toList();
+
+        return ResponseEntity.badRequest().body(errorList);
+    }
+
     @ExceptionHandler(TransactionSystemException.class)
     public ResponseEntity<?> transactionHandler(TransactionSystemException ex) {
         ResponseEntity.BodyBuilder builder = ResponseEntity.badRequest();
@@ -40,4 +56,18 @@ public class CustomErrorController {
 
         return builder.build();
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> optimisticLockingHandler(OptimisticLockingFailureException ex, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_MATCH) != null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(OutOfStockException.class)
+    public ResponseEntity<?> outOfStockHandler(OutOfStockException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("beerId", ex.getBeerId().toString()));
+    }
 }
@@ -1,13 +1,24 @@
 package com.moh4lych.springdi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.services.CustomerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,8 +27,13 @@ import java.util.UUID;
 public class CustomerController {
     public static final String CUSTOMER_PATH = "/api/v1/customer";
     public static final String CUSTOMER_PATH_ID = CUSTOMER_PATH + "/{customerId}";
+    public static final String CUSTOMER_PATH_EXPORT = CUSTOMER_PATH + "/export";
+    public static final String CUSTOMER_PATH_SLICE = CUSTOMER_PATH + "/slice";
+
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
 
     private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
 
     @PatchMapping(CUSTOMER_PATH_ID)
     public ResponseEntity patchCustomerById(@PathVariable("customerId") UUID customerId,
@@ -64,6 +80,61 @@ public class CustomerController {
         return customerService.getAllCustomers();
     }
 
+    @GetMapping(CUSTOMER_PATH_SLICE)
+    public Slice<CustomerDTO> listCustomersSlice(@RequestParam(required = false) Integer pageNumber
+            , @RequestParam(required = false) Integer pageSize) {
+        return customerService.listCustomersSlice(pageNumber, pageSize);
+    }
+
+    @GetMapping(value = CUSTOMER_PATH, params = {"after", "!name", "!email"})
+    public KeysetPage<CustomerDTO> listCustomersAfter(@RequestParam(required = false) UUID after
+            , @RequestParam(required = false) Integer pageSize
+            , @RequestParam(defaultValue = "false") boolean count) {
+        return customerService.listCustomersAfter(after, pageSize, count);
+    }
+
+    @GetMapping(value = CUSTOMER_PATH, params = "name")
+    public KeysetPage<CustomerDTO> searchCustomers(@RequestParam String name
+            , @RequestParam(required = false) String email
+            , @RequestParam(required = false) KeysetCursor after
+            , @RequestParam(required = false) Integer pageSize) {
+        return customerService.searchCustomers(name, email, after, pageSize);
+    }
+
+    @GetMapping(value = CUSTOMER_PATH, params = {"email", "!name"})
+    public KeysetPage<CustomerDTO> searchCustomersByEmail(@RequestParam String email) {
+        return customerService.searchCustomers(null, email, null, null);
+    }
+
+    @GetMapping(value = CUSTOMER_PATH_EXPORT, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        ObjectWriter writer = objectMapper.writerFor(CustomerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null)) {
+                int[] written = {0};
+
+                customerService.exportCustomers(customerDTO -> {
+                    try {
+                        writer.writeValue(generator, customerDTO);
+                        generator.writeRaw('\n');
+
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping(value = CUSTOMER_PATH_ID)
     public CustomerDTO getCustomerById(@PathVariable("customerId") UUID id) {
         return customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
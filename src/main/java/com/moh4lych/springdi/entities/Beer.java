@@ -9,7 +9,6 @@ import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
@@ -22,14 +21,17 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
+@Table(indexes = {
+        @Index(name = "beer_style_name_id_idx", columnList = "beer_style, beer_name, id"),
+        @Index(name = "beer_name_id_idx", columnList = "beer_name, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Beer {
     @Id
-    @GeneratedValue(generator = "UUID")
-    @UuidGenerator
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", nullable = false, updatable = false)
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", nullable = false, updatable = false)
     private UUID id;
 
     @Version
@@ -57,6 +59,9 @@ public class Beer {
     @UpdateTimestamp
     private LocalDateTime updateDate;
 
+    @Column(length = 64)
+    private String contentHash;
+
     @OneToMany(mappedBy = "beer")
     private Set<BeerOrderLine> beerOrderLines;
 
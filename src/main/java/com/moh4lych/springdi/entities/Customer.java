@@ -3,7 +3,6 @@ package com.moh4lych.springdi.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
@@ -18,14 +17,17 @@ import java.util.UUID;
 @Setter
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "customer_email_uidx", columnList = "email", unique = true),
+        @Index(name = "customer_name_id_idx", columnList = "name, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Customer {
     @Id
-    @GeneratedValue(generator = "UUID")
-    @UuidGenerator
-    @Column(length = 36, columnDefinition = "varchar", updatable = false, nullable = false)
-    @JdbcTypeCode(SqlTypes.CHAR)
+    @TimeOrderedUuid
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, columnDefinition = "binary(16)", nullable = false, updatable = false)
     private UUID id;
     private String name;
 
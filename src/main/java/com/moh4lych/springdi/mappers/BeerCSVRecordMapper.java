@@ -0,0 +1,72 @@
+package com.moh4lych.springdi.mappers;
+
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.model.BeerCSVRecord;
+import com.moh4lych.springdi.model.BeerStyle;
+import org.apache.commons.lang3.StringUtils;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Mapper
+public interface BeerCSVRecordMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "updateDate", ignore = true)
+    @Mapping(target = "beerOrderLines", ignore = true)
+    @Mapping(target = "categories", ignore = true)
+    @Mapping(target = "beerName", source = "beer", qualifiedByName = "abbreviateBeerName")
+    @Mapping(target = "beerStyle", source = "style")
+    @Mapping(target = "upc", source = "row")
+    @Mapping(target = "quantityOnHand", source = "count")
+    @Mapping(target = "price", constant = "10")
+    @Mapping(target = "contentHash", source = ".", qualifiedByName = "contentHash")
+    Beer beerCsvRecordToBeer(BeerCSVRecord beerCSVRecord);
+
+    @Named("abbreviateBeerName")
+    default String abbreviateBeerName(String beer) {
+        return StringUtils.abbreviate(beer, 50);
+    }
+
+    /**
+     * Hash of the supplier columns a row is imported from, used to skip unchanged rows on re-import.
+     */
+    @Named("contentHash")
+    default String contentHash(BeerCSVRecord beerCSVRecord) {
+        String content = beerCSVRecord.getBeer() + '\u001f' + beerCSVRecord.getStyle() + '\u001f'
+                + beerCSVRecord.getCount();
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    default BeerStyle styleToBeerStyle(String style) {
+        if (style == null) {
+            return null;
+        }
+
+        return switch (style) {
+            case "American Pale Lager" -> BeerStyle.LAGER;
+            case "American Pale Ale (APA)", "American Black Ale", "Belgian Dark Ale", "American Blonde Ale" ->
+                    BeerStyle.ALE;
+            case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
+            case "American Porter" -> BeerStyle.PORTER;
+            case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
+            case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
+            case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
+            case "English Pale Ale" -> BeerStyle.PALE_ALE;
+            default -> BeerStyle.PILSNER;
+        };
+    }
+}
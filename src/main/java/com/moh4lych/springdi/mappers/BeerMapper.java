@@ -3,9 +3,11 @@ package com.moh4lych.springdi.mappers;
 import com.moh4lych.springdi.entities.Beer;
 import com.moh4lych.springdi.model.BeerDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper
 public interface BeerMapper {
+    @Mapping(target = "contentHash", ignore = true)
     Beer beerDtoToBeer(BeerDTO beerDTO);
 
     BeerDTO beerToBeerDto(Beer beer);
@@ -0,0 +1,18 @@
+package com.moh4lych.springdi.mappers;
+
+import com.moh4lych.springdi.entities.BeerOrder;
+import com.moh4lych.springdi.entities.BeerOrderLine;
+import com.moh4lych.springdi.model.BeerOrderDTO;
+import com.moh4lych.springdi.model.BeerOrderLineDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface BeerOrderMapper {
+
+    @Mapping(target = "customerId", source = "customer.id")
+    BeerOrderDTO beerOrderToBeerOrderDto(BeerOrder beerOrder);
+
+    @Mapping(target = "beerId", source = "beer.id")
+    BeerOrderLineDTO beerOrderLineToBeerOrderLineDto(BeerOrderLine beerOrderLine);
+}
@@ -0,0 +1,13 @@
+package com.moh4lych.springdi.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Builder
+@Data
+public class BeerBatchError {
+    private int index;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,14 @@
+package com.moh4lych.springdi.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerBatchResult {
+    private List<UUID> createdIds;
+    private List<BeerBatchError> errors;
+}
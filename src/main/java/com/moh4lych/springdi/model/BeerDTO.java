@@ -2,6 +2,8 @@ package com.moh4lych.springdi.model;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,13 +11,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-@Builder
+@Builder(toBuilder = true)
 @Data
+@AllArgsConstructor
 public class BeerDTO {
     private UUID id;
     private Integer version;
 
     @NotBlank
+    @Size(max = 50)
     private String beerName;
 
     @NotNull
@@ -0,0 +1,25 @@
+package com.moh4lych.springdi.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerImportJobDTO {
+    private UUID id;
+    private String fileName;
+    private BeerImportStatus status;
+    private boolean incremental;
+    private long rowsParsed;
+    private long rowsInserted;
+    private long rowsUpdated;
+    private long rowsUnchanged;
+    private long rowsRejected;
+    private long rowsPerSecond;
+    private String error;
+    private LocalDateTime startedDate;
+    private LocalDateTime finishedDate;
+}
@@ -0,0 +1,5 @@
+package com.moh4lych.springdi.model;
+
+public enum BeerImportStatus {
+    RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,11 @@
+package com.moh4lych.springdi.model;
+
+import java.util.UUID;
+
+public interface BeerNameView {
+    UUID getId();
+
+    String getBeerName();
+
+    BeerStyle getBeerStyle();
+}
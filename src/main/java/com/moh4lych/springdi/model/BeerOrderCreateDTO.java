@@ -0,0 +1,29 @@
+package com.moh4lych.springdi.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerOrderCreateDTO {
+    /**
+     * Together these bound the quantity merged per beer to 10^9, well below {@link Integer#MAX_VALUE}.
+     */
+    public static final int MAX_ORDER_LINES = 1000;
+    public static final int MAX_ORDER_QUANTITY = 1_000_000;
+
+    @NotNull
+    private UUID customerId;
+    private String customerRef;
+
+    @NotEmpty
+    @Size(max = MAX_ORDER_LINES)
+    private List<@NotNull @Valid BeerOrderLineCreateDTO> beerOrderLines;
+}
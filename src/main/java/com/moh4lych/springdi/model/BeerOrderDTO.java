@@ -0,0 +1,20 @@
+package com.moh4lych.springdi.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerOrderDTO {
+    private UUID id;
+    private Integer version;
+    private UUID customerId;
+    private String customerRef;
+    private List<BeerOrderLineDTO> beerOrderLines;
+    private LocalDateTime createdDate;
+    private LocalDateTime updateDate;
+}
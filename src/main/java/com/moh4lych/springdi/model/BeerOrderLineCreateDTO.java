@@ -0,0 +1,21 @@
+package com.moh4lych.springdi.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerOrderLineCreateDTO {
+    @NotNull
+    private UUID beerId;
+
+    @NotNull
+    @Min(1)
+    @Max(BeerOrderCreateDTO.MAX_ORDER_QUANTITY)
+    private Integer orderQuantity;
+}
@@ -0,0 +1,15 @@
+package com.moh4lych.springdi.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Builder
+@Data
+public class BeerOrderLineDTO {
+    private UUID id;
+    private UUID beerId;
+    private Integer orderQuantity;
+    private Integer quantityAllocated;
+}
@@ -0,0 +1,29 @@
+package com.moh4lych.springdi.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+public record KeysetCursor(String name, UUID id) {
+    public static final KeysetCursor FIRST = new KeysetCursor("", new UUID(0L, 0L));
+
+    private static final int UUID_LENGTH = 36;
+
+    public static KeysetCursor valueOf(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if (decoded.length() < UUID_LENGTH) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+
+        return new KeysetCursor(decoded.substring(UUID_LENGTH), UUID.fromString(decoded.substring(0, UUID_LENGTH)));
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id.toString() + name).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,14 @@
+package com.moh4lych.springdi.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+public class KeysetPage<T> {
+    private List<T> content;
+    private String next;
+    private Long totalElements;
+}
@@ -1,17 +1,150 @@
 package com.moh4lych.springdi.repositories;
 
 import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.model.BeerDTO;
+import com.moh4lych.springdi.model.BeerNameView;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.BeerUpcHashView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface BeerRepository extends JpaRepository<Beer, UUID> {
+    String SELECT_BEER_DTO = "select new com.moh4lych.springdi.model.BeerDTO(b.id, b.version, b.beerName, "
+            + "b.beerStyle, b.upc, b.quantityOnHand, b.price, b.createdDate, b.updateDate) from Beer b";
+    String COUNT_BEERS = "select count(b) from Beer b";
+    String WHERE_NAME_LIKE = " where upper(b.beerName) like upper(:beerNamePattern)";
+    String WHERE_STYLE = " where b.beerStyle = :beerStyle";
+    String WHERE_NAME_LIKE_AND_STYLE = WHERE_NAME_LIKE + " and b.beerStyle = :beerStyle";
+    String AFTER_CURSOR = "(b.beerName > :afterName or (b.beerName = :afterName and b.id > :afterId))";
+    String ORDER_BY_CURSOR = " order by b.beerName, b.id";
+    String EXPORT_FETCH_SIZE = "1000";
+
     Page<Beer> findAllByBeerNameIsLikeIgnoreCase(String beerName, Pageable pageable);
 
     Page<Beer> findAllByBeerStyle(BeerStyle beerStyle, Pageable pageable);
 
     Page<Beer> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle, Pageable pageable);
+
+    long countByBeerNameIsLikeIgnoreCase(String beerName);
+
+    long countByBeerStyle(BeerStyle beerStyle);
+
+    long countByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.id = :id")
+    Optional<BeerDTO> findBeerDtoById(UUID id);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where b.id in :ids")
+    List<BeerDTO> findBeerDtosByIdIn(Collection<UUID> ids);
+
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_BEER_DTO, countQuery = COUNT_BEERS)
+    Page<BeerDTO> findBeerDtos(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_BEER_DTO + WHERE_NAME_LIKE, countQuery = COUNT_BEERS + WHERE_NAME_LIKE)
+    Page<BeerDTO> findBeerDtosByBeerNameLike(String beerNamePattern, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_BEER_DTO + WHERE_STYLE, countQuery = COUNT_BEERS + WHERE_STYLE)
+    Page<BeerDTO> findBeerDtosByBeerStyle(BeerStyle beerStyle, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_BEER_DTO + WHERE_NAME_LIKE_AND_STYLE, countQuery = COUNT_BEERS + WHERE_NAME_LIKE_AND_STYLE)
+    Page<BeerDTO> findBeerDtosByBeerNameLikeAndBeerStyle(String beerNamePattern, BeerStyle beerStyle,
+                                                         Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO)
+    Slice<BeerDTO> findBeerDtoSlice(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + WHERE_NAME_LIKE)
+    Slice<BeerDTO> findBeerDtoSliceByBeerNameLike(String beerNamePattern, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + WHERE_STYLE)
+    Slice<BeerDTO> findBeerDtoSliceByBeerStyle(BeerStyle beerStyle, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + WHERE_NAME_LIKE_AND_STYLE)
+    Slice<BeerDTO> findBeerDtoSliceByBeerNameLikeAndBeerStyle(String beerNamePattern, BeerStyle beerStyle,
+                                                              Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + " where " + AFTER_CURSOR + ORDER_BY_CURSOR)
+    List<BeerDTO> findBeerDtosAfter(String afterName, UUID afterId, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + WHERE_NAME_LIKE + " and " + AFTER_CURSOR + ORDER_BY_CURSOR)
+    List<BeerDTO> findBeerDtosByBeerNameLikeAfter(String beerNamePattern, String afterName, UUID afterId,
+                                                  Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + WHERE_STYLE + " and " + AFTER_CURSOR + ORDER_BY_CURSOR)
+    List<BeerDTO> findBeerDtosByBeerStyleAfter(BeerStyle beerStyle, String afterName, UUID afterId,
+                                               Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(SELECT_BEER_DTO + WHERE_NAME_LIKE_AND_STYLE + " and " + AFTER_CURSOR + ORDER_BY_CURSOR)
+    List<BeerDTO> findBeerDtosByBeerNameLikeAndBeerStyleAfter(String beerNamePattern, BeerStyle beerStyle,
+                                                              String afterName, UUID afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.beerName = coalesce(:beerName, b.beerName), "
+            + "b.beerStyle = coalesce(:beerStyle, b.beerStyle), b.upc = coalesce(:upc, b.upc), "
+            + "b.price = coalesce(:price, b.price), b.quantityOnHand = coalesce(:quantityOnHand, b.quantityOnHand), "
+            + "b.version = b.version + 1, b.updateDate = :updateDate "
+            + "where b.id = :id and (:version is null or b.version = :version)")
+    int patchBeer(UUID id, Integer version, String beerName, BeerStyle beerStyle, String upc, BigDecimal price,
+                  Integer quantityOnHand, LocalDateTime updateDate);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Beer b where b.id = :id")
+    int deleteBeer(UUID id);
+
+    /**
+     * Takes {@code quantity} off the stock only if that much is on hand, so concurrent orders serialize on the
+     * row lock instead of failing the version check. Returns 0 when the stock is short or the beer is gone.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Beer b set b.quantityOnHand = b.quantityOnHand - :quantity, b.version = b.version + 1, "
+            + "b.updateDate = :updateDate where b.id = :id and b.quantityOnHand >= :quantity")
+    int allocateStock(UUID id, int quantity, LocalDateTime updateDate);
+
+    long countByIdIn(Collection<UUID> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_BEER_DTO + " where (:beerStyle is null or b.beerStyle = :beerStyle) order by b.id")
+    Stream<BeerDTO> streamBeerDtos(BeerStyle beerStyle);
+
+    @Query("select b.id as id, b.upc as upc, b.contentHash as contentHash from Beer b where b.upc in :upcs")
+    List<BeerUpcHashView> findUpcHashesByUpcIn(Collection<String> upcs);
+
+    @Query("select b.id as id, b.beerName as beerName, b.beerStyle as beerStyle from Beer b")
+    Stream<BeerNameView> streamAllNames();
 }
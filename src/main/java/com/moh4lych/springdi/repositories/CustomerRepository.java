@@ -1,9 +1,42 @@
 package com.moh4lych.springdi.repositories;
 
 import com.moh4lych.springdi.entities.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
-}
\ No newline at end of file
+    String AFTER_NAME_CURSOR = "(c.name > :afterName or (c.name = :afterName and c.id > :afterId))";
+
+    List<Customer> findAllByOrderByIdAsc(Pageable pageable);
+
+    Slice<Customer> findSliceByOrderByIdAsc(Pageable pageable);
+
+    @Query("select c from Customer c where c.id > :afterId order by c.id")
+    List<Customer> findCustomersAfter(UUID afterId, Pageable pageable);
+
+    Optional<Customer> findByEmail(String email);
+
+    Optional<Customer> findByEmailAndNameStartingWith(String email, String name);
+
+    /**
+     * Seeks through the customers whose name matches {@code namePattern} in (name, id) order. Build the pattern
+     * with {@link #prefixPattern(String)} so it stays a prefix and the range scan stays on customer_name_id_idx.
+     */
+    @Query("select c from Customer c where c.name like :namePattern escape '!' and " + AFTER_NAME_CURSOR
+            + " order by c.name, c.id")
+    List<Customer> findByNameLikeAfter(String namePattern, String afterName, UUID afterId, Pageable pageable);
+
+    /**
+     * Escapes the like wildcards in {@code prefix} and appends {@code %}. The escape character is {@code !}
+     * rather than a backslash, which MySQL would also treat as a string literal escape.
+     */
+    static String prefixPattern(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+}
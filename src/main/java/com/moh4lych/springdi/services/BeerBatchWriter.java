@@ -0,0 +1,133 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.model.BeerUpcHashView;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persists beers in one transaction, flushing and clearing the persistence context every
+ * {@code batchSize} rows so Hibernate sends JDBC batches and the context stays small.
+ */
+@Component
+public class BeerBatchWriter {
+    private final EntityManager entityManager;
+    private final BeerRepository beerRepository;
+    private final int batchSize;
+
+    public BeerBatchWriter(EntityManager entityManager, BeerRepository beerRepository,
+                           @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.beerRepository = beerRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public List<Beer> persistAll(Collection<Beer> beers) {
+        List<Beer> persisted = new ArrayList<>(beers.size());
+        persist(beers.iterator(), persisted::add);
+
+        return persisted;
+    }
+
+    /**
+     * Persists a stream of any length without holding on to the entities, returning the number of rows written.
+     */
+    @Transactional
+    public long persistAll(Stream<Beer> beers) {
+        return persist(beers.iterator(), beer -> {
+        });
+    }
+
+    /**
+     * Inserts beers whose upc is unknown and updates existing ones whose content hash differs. Beers with an
+     * unchanged hash are not written. When a chunk repeats a upc the last row wins. Callers own invalidating
+     * anything cached or indexed for the updated beers, which are returned detached.
+     */
+    @Transactional
+    public UpsertResult upsertByUpc(List<Beer> beers) {
+        Map<String, Beer> incoming = new LinkedHashMap<>();
+        beers.forEach(beer -> incoming.put(beer.getUpc(), beer));
+
+        Map<String, List<BeerUpcHashView>> existing = beerRepository.findUpcHashesByUpcIn(incoming.keySet())
+                .stream()
+                .collect(Collectors.groupingBy(BeerUpcHashView::getUpc));
+
+        List<Beer> inserts = new ArrayList<>();
+        List<UUID> changedIds = new ArrayList<>();
+        int unchanged = 0;
+
+        for (Beer beer : incoming.values()) {
+            List<BeerUpcHashView> matches = existing.get(beer.getUpc());
+
+            if (matches == null) {
+                inserts.add(beer);
+                continue;
+            }
+
+            for (BeerUpcHashView match : matches) {
+                if (Objects.equals(match.getContentHash(), beer.getContentHash())) {
+                    unchanged++;
+                } else {
+                    changedIds.add(match.getId());
+                }
+            }
+        }
+
+        List<Beer> updated = beerRepository.findAllById(changedIds);
+        for (Beer found : updated) {
+            Beer source = incoming.get(found.getUpc());
+            found.setBeerName(source.getBeerName());
+            found.setBeerStyle(source.getBeerStyle());
+            found.setQuantityOnHand(source.getQuantityOnHand());
+            found.setPrice(source.getPrice());
+            found.setContentHash(source.getContentHash());
+        }
+
+        persist(inserts.iterator(), beer -> {
+        });
+
+        return new UpsertResult(inserts.size(), updated, unchanged);
+    }
+
+    private long persist(Iterator<Beer> beers, Consumer<Beer> onPersisted) {
+        long count = 0;
+
+        while (beers.hasNext()) {
+            Beer beer = beers.next();
+            entityManager.persist(beer);
+            onPersisted.accept(beer);
+
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        return count;
+    }
+
+    public record UpsertResult(int inserted, List<Beer> updated, int unchanged) {
+        public List<UUID> updatedIds() {
+            return updated.stream().map(Beer::getId).toList();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapper;
+import com.moh4lych.springdi.model.BeerCSVRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Imports a beer CSV file on a fork-join pool. The file is memory-mapped and cut into chunks that end on a
+ * record boundary, every chunk is parsed on its own with the header prepended and its rows are persisted
+ * through {@link BeerBatchWriter}.
+ */
+@Slf4j
+@Service
+public class BeerCSVParallelImporter {
+    private static final int ROWS_PER_TRANSACTION = 1000;
+    private static final long SCAN_WINDOW = 256L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE / 2;
+
+    private final BeerCSVService beerCSVService;
+    private final BeerCSVRecordMapper beerCSVRecordMapper;
+    private final BeerBatchWriter beerBatchWriter;
+    private final BeerCatalogGeneration beerCatalogGeneration;
+    private final BeerNameIndex beerNameIndex;
+    private final int parallelism;
+    private final long chunkSize;
+
+    public BeerCSVParallelImporter(@Qualifier("beerCSVServiceFastImpl") BeerCSVService beerCSVService,
+                                   BeerCSVRecordMapper beerCSVRecordMapper,
+                                   BeerBatchWriter beerBatchWriter,
+                                   BeerCatalogGeneration beerCatalogGeneration,
+                                   BeerNameIndex beerNameIndex,
+                                   @Value("${springdi.import.parallelism:0}") int parallelism,
+                                   @Value("${springdi.import.chunk-size:8MB}") DataSize chunkSize) {
+        this.beerCSVService = beerCSVService;
+        this.beerCSVRecordMapper = beerCSVRecordMapper;
+        this.beerBatchWriter = beerBatchWriter;
+        this.beerCatalogGeneration = beerCatalogGeneration;
+        this.beerNameIndex = beerNameIndex;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = Math.min(Math.max(chunkSize.toBytes(), 1), MAX_CHUNK_SIZE);
+    }
+
+    public long importCSV(File csv) {
+        long start = System.nanoTime();
+        long imported = 0;
+
+        try (FileChannel channel = FileChannel.open(csv.toPath(), StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel);
+
+            if (!chunks.isEmpty()) {
+                byte[] header = readHeader(channel, chunks.getFirst().start());
+
+                AtomicBoolean stopped = new AtomicBoolean();
+
+                // close() waits for every running chunk, so none is still reading the channel once it is closed.
+                // shutdownNow() would not: it lets close() return while cancelled chunks are still running.
+                try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+                    List<ForkJoinTask<Long>> tasks = chunks.stream()
+                            .map(chunk -> pool.submit(() -> importChunk(channel, header, chunk, stopped)))
+                            .toList();
+
+                    try {
+                        for (ForkJoinTask<Long> task : tasks) {
+                            imported += task.join();
+                        }
+                    } catch (RuntimeException | Error e) {
+                        stopped.set(true);
+                        tasks.forEach(task -> task.cancel(false));
+                        throw e;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Batches bump as they commit, this last bump goes with the rebuilt name index.
+            beerCatalogGeneration.bump();
+            beerNameIndex.rebuild();
+        }
+
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        log.info("Imported {} beers from {} in {} ms ({} rows/s)", imported, csv.getName(), elapsedMillis,
+                imported * 1000 / elapsedMillis);
+
+        return imported;
+    }
+
+    private List<Chunk> split(FileChannel channel) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long size = channel.size();
+        long chunkStart = -1;
+        boolean inQuotes = false;
+
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW) {
+            int windowLength = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+
+            for (int i = 0; i < windowLength; i++) {
+                byte b = window.get(i);
+
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    long recordEnd = windowStart + i + 1;
+
+                    if (chunkStart < 0) {
+                        chunkStart = recordEnd;
+                    } else if (recordEnd - chunkStart >= chunkSize) {
+                        chunks.add(new Chunk(chunkStart, recordEnd - chunkStart));
+                        chunkStart = recordEnd;
+                    }
+                }
+            }
+        }
+
+        if (chunkStart >= 0 && chunkStart < size) {
+            chunks.add(new Chunk(chunkStart, size - chunkStart));
+        }
+
+        return chunks;
+    }
+
+    private static byte[] readHeader(FileChannel channel, long headerLength) throws IOException {
+        byte[] header = new byte[(int) headerLength];
+        channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength).get(header);
+        return header;
+    }
+
+    /**
+     * Imports one chunk, stopping at the next record once {@code stopped} is set. A failing chunk sets it itself
+     * so the others stop without waiting for the failure to be joined.
+     */
+    private long importChunk(FileChannel channel, byte[] header, Chunk chunk, AtomicBoolean stopped)
+            throws IOException {
+        try {
+            return importRecords(channel, header, chunk, stopped);
+        } catch (IOException | RuntimeException | Error e) {
+            stopped.set(true);
+            throw e;
+        }
+    }
+
+    private long importRecords(FileChannel channel, byte[] header, Chunk chunk, AtomicBoolean stopped)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.length());
+        Reader reader = new InputStreamReader(new SequenceInputStream(new ByteArrayInputStream(header),
+                new ByteBufferInputStream(buffer)), StandardCharsets.UTF_8);
+        List<Beer> batch = new ArrayList<>(ROWS_PER_TRANSACTION);
+        long imported = 0;
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(reader)) {
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+
+            while (!stopped.get() && iterator.hasNext()) {
+                batch.add(beerCSVRecordMapper.beerCsvRecordToBeer(iterator.next()));
+
+                if (batch.size() == ROWS_PER_TRANSACTION) {
+                    imported += persist(batch);
+                    batch = new ArrayList<>(ROWS_PER_TRANSACTION);
+                }
+            }
+        }
+
+        if (!stopped.get() && !batch.isEmpty()) {
+            imported += persist(batch);
+        }
+
+        return imported;
+    }
+
+    private int persist(List<Beer> batch) {
+        beerBatchWriter.persistAll(batch);
+        // every batch commits on its own, so make it visible to cached listings right away
+        beerCatalogGeneration.bump();
+        return batch.size();
+    }
+
+    private record Chunk(long start, long length) {
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+    }
+}
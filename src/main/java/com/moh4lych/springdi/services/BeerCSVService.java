@@ -3,8 +3,20 @@ package com.moh4lych.springdi.services;
 import com.moh4lych.springdi.model.BeerCSVRecord;
 
 import java.io.File;
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BeerCSVService {
     public List<BeerCSVRecord> convertCSV(File csv);
+
+    /**
+     * Lazily parses the file one row at a time. The returned stream holds the file open and must be closed.
+     */
+    public Stream<BeerCSVRecord> streamCSV(File csv);
+
+    /**
+     * Same as {@link #streamCSV(File)} for an already opened source, which is closed together with the stream.
+     */
+    public Stream<BeerCSVRecord> streamCSV(Reader csv);
 }
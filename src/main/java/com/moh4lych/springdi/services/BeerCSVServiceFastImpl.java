@@ -0,0 +1,271 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerCSVRecord;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Hand-written parser for the beer CSV format. Only {@code row}, {@code count.x}, {@code beer} and
+ * {@code style} are decoded, every other column is skipped without being copied out of the read buffer.
+ * Unquoted {@code NA} or empty values in the numeric columns become {@code null}. A record with any other
+ * non-numeric or out of range value is skipped and reported as a {@link MalformedCSVRecordException}.
+ */
+@Service
+public class BeerCSVServiceFastImpl implements BeerCSVService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public List<BeerCSVRecord> convertCSV(File csv) {
+        try (Stream<BeerCSVRecord> records = streamCSV(csv)) {
+            return records.toList();
+        }
+    }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(File csv) {
+        try {
+            return streamCSV(Files.newBufferedReader(csv.toPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(Reader reader) {
+        BeerCSVReader csvReader = new BeerCSVReader(reader);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(csvReader,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(csvReader::closeQuietly);
+    }
+
+    static final class BeerCSVReader implements Iterator<BeerCSVRecord>, Closeable {
+        private static final int END_OF_FIELD = 0;
+        private static final int END_OF_RECORD = 1;
+        private static final int END_OF_INPUT = 2;
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder field = new StringBuilder(64);
+        private int position;
+        private int limit;
+        private boolean quoted;
+
+        private int rowColumn = -1;
+        private int countColumn = -1;
+        private int beerColumn = -1;
+        private int styleColumn = -1;
+
+        private BeerCSVRecord next;
+        private boolean finished;
+        private RuntimeException malformed;
+
+        BeerCSVReader(Reader reader) {
+            this.reader = reader;
+
+            try {
+                readHeader();
+            } catch (IOException e) {
+                closeQuietly();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                try {
+                    next = readRecord();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                finished = next == null;
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public BeerCSVRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            BeerCSVRecord record = next;
+            next = null;
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void readHeader() throws IOException {
+            int column = 0;
+            int end;
+
+            do {
+                end = readField(true);
+
+                if (column == 0 && !field.isEmpty() && field.charAt(0) == '\uFEFF') {
+                    field.deleteCharAt(0);
+                }
+
+                switch (field.toString()) {
+                    case "row" -> rowColumn = column;
+                    case "count.x" -> countColumn = column;
+                    case "beer" -> beerColumn = column;
+                    case "style" -> styleColumn = column;
+                    default -> {
+                    }
+                }
+                column++;
+            } while (end == END_OF_FIELD);
+        }
+
+        private BeerCSVRecord readRecord() throws IOException {
+            BeerCSVRecord record = new BeerCSVRecord();
+            int column = 0;
+            int end;
+            malformed = null;
+
+            do {
+                boolean needed = column == rowColumn || column == countColumn
+                        || column == beerColumn || column == styleColumn;
+                end = readField(needed);
+
+                if (column == 0 && end != END_OF_FIELD && field.isEmpty() && !quoted) {
+                    if (end == END_OF_INPUT) {
+                        return null;
+                    }
+                    continue;
+                }
+
+                if (column == rowColumn) {
+                    record.setRow(numericValue());
+                } else if (column == countColumn) {
+                    record.setCount(numericValue());
+                } else if (column == beerColumn) {
+                    record.setBeer(field.toString());
+                } else if (column == styleColumn) {
+                    record.setStyle(field.toString());
+                }
+                column++;
+            } while (end == END_OF_FIELD || column == 0);
+
+            if (malformed != null) {
+                throw new MalformedCSVRecordException("Malformed beer CSV record: " + malformed.getMessage(),
+                        malformed);
+            }
+
+            return record;
+        }
+
+        private int readField(boolean capture) throws IOException {
+            field.setLength(0);
+            quoted = false;
+            int c = read();
+
+            if (c == '"') {
+                quoted = true;
+
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        return END_OF_INPUT;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    if (capture) {
+                        field.append((char) c);
+                    }
+                }
+            }
+
+            while (c != ',' && c != '\n' && c != -1) {
+                if (capture && c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+
+            return c == ',' ? END_OF_FIELD : c == '\n' ? END_OF_RECORD : END_OF_INPUT;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+
+            return buffer[position++];
+        }
+
+        private Integer numericValue() {
+            try {
+                return intValue();
+            } catch (NumberFormatException | ArithmeticException e) {
+                if (malformed == null) {
+                    malformed = e;
+                }
+                return null;
+            }
+        }
+
+        private Integer intValue() {
+            int length = field.length();
+
+            if (length == 0 || (!quoted && length == 2 && field.charAt(0) == 'N' && field.charAt(1) == 'A')) {
+                return null;
+            }
+
+            boolean negative = field.charAt(0) == '-';
+            int i = negative ? 1 : 0;
+            if (i == length) {
+                throw new NumberFormatException("Not a number: " + field);
+            }
+
+            int value = 0;
+            for (; i < length; i++) {
+                int digit = field.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Not a number: " + field);
+                }
+                value = Math.subtractExact(Math.multiplyExact(value, 10), digit);
+            }
+
+            return negative ? value : Math.negateExact(value);
+        }
+    }
+}
@@ -3,25 +3,56 @@ package com.moh4lych.springdi.services;
 import com.moh4lych.springdi.model.BeerCSVRecord;
 import com.opencsv.bean.CsvToBeanBuilder;
 import lombok.NoArgsConstructor;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
+@Primary
 @NoArgsConstructor
 public class BeerCSVServiceImpl implements BeerCSVService {
     @Override
     public List<BeerCSVRecord> convertCSV(File csv) {
+        try (Stream<BeerCSVRecord> records = streamCSV(csv)) {
+            return records.toList();
+        }
+    }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(File csv) {
         try {
-            return new CsvToBeanBuilder<BeerCSVRecord>(new FileReader(csv))
-                    .withType(BeerCSVRecord.class)
-                    .build()
-                    .parse();
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+            return streamCSV(Files.newBufferedReader(csv.toPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
+
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(Reader reader) {
+        Iterator<BeerCSVRecord> iterator = new CsvToBeanBuilder<BeerCSVRecord>(reader)
+                .withType(BeerCSVRecord.class)
+                .build()
+                .iterator();
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
 }
@@ -0,0 +1,90 @@
+package com.moh4lych.springdi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moh4lych.springdi.model.BeerDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of {@link BeerDTO} by id. Writes made inside a surrounding transaction are
+ * never published to the cache, they only evict the entry once the transaction completes. Entries are copied
+ * on the way in and out, so callers may mutate what they put or get.
+ */
+@Component
+public class BeerCache {
+    private final Cache<UUID, BeerDTO> cache;
+
+    public BeerCache(MeterRegistry meterRegistry,
+                     @Value("${springdi.cache.beer.maximum-size:10000}") long maximumSize,
+                     @Value("${springdi.cache.beer.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "beerById");
+    }
+
+    public Optional<BeerDTO> get(UUID id, Function<UUID, Optional<BeerDTO>> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.apply(id);
+        }
+
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).map(BeerCache::copy).orElse(null)))
+                .map(BeerCache::copy);
+    }
+
+    public Optional<BeerDTO> getIfPresent(UUID id) {
+        return Optional.ofNullable(cache.getIfPresent(id)).map(BeerCache::copy);
+    }
+
+    public void put(BeerDTO beerDTO) {
+        if (evictAfterCompletion(beerDTO.getId())) {
+            return;
+        }
+
+        BeerDTO copy = copy(beerDTO);
+        cache.asMap().compute(copy.getId(), (id, cached) -> isStale(copy, cached) ? cached : copy);
+    }
+
+    public void evict(UUID id) {
+        cache.invalidate(id);
+        evictAfterCompletion(id);
+    }
+
+    private boolean evictAfterCompletion(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+
+        cache.invalidate(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidate(id);
+            }
+        });
+
+        return true;
+    }
+
+    private static BeerDTO copy(BeerDTO beerDTO) {
+        return beerDTO.toBuilder().build();
+    }
+
+    private static boolean isStale(BeerDTO beerDTO, BeerDTO cached) {
+        return cached != null && cached.getVersion() != null
+                && (beerDTO.getVersion() == null || beerDTO.getVersion() < cached.getVersion());
+    }
+}
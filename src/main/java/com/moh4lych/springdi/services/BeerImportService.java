@@ -0,0 +1,14 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerImportJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerImportService {
+
+    BeerImportJobDTO startImport(MultipartFile file, boolean incremental);
+
+    Optional<BeerImportJobDTO> getImportJob(UUID jobId);
+}
@@ -0,0 +1,249 @@
+package com.moh4lych.springdi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapper;
+import com.moh4lych.springdi.model.BeerCSVRecord;
+import com.moh4lych.springdi.model.BeerImportJobDTO;
+import com.moh4lych.springdi.model.BeerImportStatus;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Runs CSV uploads in the background. The upload is copied to a temporary file before the request returns,
+ * the import itself streams that file on the application task executor and persists valid rows in
+ * batches through {@link BeerBatchWriter}. Incremental jobs upsert by upc and skip rows whose content hash
+ * is unchanged. Job progress is kept in memory for a day.
+ */
+@Slf4j
+@Service
+public class BeerImportServiceImpl implements BeerImportService {
+    private static final int ROWS_PER_TRANSACTION = 1000;
+
+    private final BeerCSVService beerCSVService;
+    private final BeerCSVRecordMapper beerCSVRecordMapper;
+    private final BeerBatchWriter beerBatchWriter;
+    private final BeerCatalogGeneration beerCatalogGeneration;
+    private final BeerNameIndex beerNameIndex;
+    private final BeerCache beerCache;
+    private final Validator validator;
+    private final AsyncTaskExecutor taskExecutor;
+    private final Cache<UUID, BeerImportJob> jobs;
+
+    public BeerImportServiceImpl(@Qualifier("beerCSVServiceFastImpl") BeerCSVService beerCSVService,
+                                 BeerCSVRecordMapper beerCSVRecordMapper,
+                                 BeerBatchWriter beerBatchWriter,
+                                 BeerCatalogGeneration beerCatalogGeneration,
+                                 BeerNameIndex beerNameIndex,
+                                 BeerCache beerCache,
+                                 Validator validator,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                 AsyncTaskExecutor taskExecutor,
+                                 @Value("${springdi.import.job-retention:1d}") Duration jobRetention) {
+        this.beerCSVService = beerCSVService;
+        this.beerCSVRecordMapper = beerCSVRecordMapper;
+        this.beerBatchWriter = beerBatchWriter;
+        this.beerCatalogGeneration = beerCatalogGeneration;
+        this.beerNameIndex = beerNameIndex;
+        this.beerCache = beerCache;
+        this.validator = validator;
+        this.taskExecutor = taskExecutor;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    @Override
+    public BeerImportJobDTO startImport(MultipartFile file, boolean incremental) {
+        Path csv;
+
+        try {
+            csv = Files.createTempFile("beer-import-", ".csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            file.transferTo(csv);
+        } catch (IOException e) {
+            deleteQuietly(csv);
+            throw new UncheckedIOException(e);
+        }
+
+        BeerImportJob job = new BeerImportJob(UUID.randomUUID(), file.getOriginalFilename(), incremental);
+        jobs.put(job.id, job);
+
+        try {
+            taskExecutor.execute(() -> runImport(job, csv));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            deleteQuietly(csv);
+            throw e;
+        }
+
+        return job.toDto();
+    }
+
+    @Override
+    public Optional<BeerImportJobDTO> getImportJob(UUID jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(BeerImportJob::toDto);
+    }
+
+    private void runImport(BeerImportJob job, Path csv) {
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(csv.toFile())) {
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+            List<Beer> batch = new ArrayList<>(ROWS_PER_TRANSACTION);
+
+            while (true) {
+                BeerCSVRecord record;
+
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    record = iterator.next();
+                } catch (MalformedCSVRecordException e) {
+                    job.rowsParsed.incrementAndGet();
+                    job.rowsRejected.incrementAndGet();
+                    continue;
+                }
+
+                Beer beer = beerCSVRecordMapper.beerCsvRecordToBeer(record);
+                job.rowsParsed.incrementAndGet();
+
+                if (!validator.validate(beer).isEmpty()) {
+                    job.rowsRejected.incrementAndGet();
+                    continue;
+                }
+
+                batch.add(beer);
+                if (batch.size() == ROWS_PER_TRANSACTION) {
+                    insert(job, batch);
+                    batch = new ArrayList<>(ROWS_PER_TRANSACTION);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                insert(job, batch);
+            }
+
+            job.finish(BeerImportStatus.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.error("Import job {} failed", job.id, e);
+            job.finish(BeerImportStatus.FAILED, e.getMessage());
+        } finally {
+            if (job.status == BeerImportStatus.RUNNING) {
+                job.finish(BeerImportStatus.FAILED, "Import aborted");
+            }
+            if (job.rowsInserted.get() > 0 || job.rowsUpdated.get() > 0) {
+                beerCatalogGeneration.bump();
+                beerNameIndex.rebuild();
+            }
+
+            deleteQuietly(csv);
+        }
+    }
+
+    private static void deleteQuietly(Path csv) {
+        try {
+            Files.deleteIfExists(csv);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", csv, e);
+        }
+    }
+
+    /**
+     * Writes one batch in its own transaction and bumps the generation once it has committed, so listings cached
+     * while a long import runs do not keep hiding the rows it has already written.
+     */
+    private void insert(BeerImportJob job, List<Beer> batch) {
+        if (!job.incremental) {
+            beerBatchWriter.persistAll(batch);
+            beerCatalogGeneration.bump();
+            job.rowsInserted.addAndGet(batch.size());
+            return;
+        }
+
+        BeerBatchWriter.UpsertResult result = beerBatchWriter.upsertByUpc(batch);
+        if (result.inserted() > 0 || !result.updated().isEmpty()) {
+            beerCatalogGeneration.bump();
+        }
+        result.updatedIds().forEach(beerCache::evict);
+        job.rowsInserted.addAndGet(result.inserted());
+        job.rowsUpdated.addAndGet(result.updated().size());
+        job.rowsUnchanged.addAndGet(result.unchanged());
+    }
+
+    private static final class BeerImportJob {
+        private final UUID id;
+        private final String fileName;
+        private final boolean incremental;
+        private final LocalDateTime startedDate = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong rowsParsed = new AtomicLong();
+        private final AtomicLong rowsInserted = new AtomicLong();
+        private final AtomicLong rowsUpdated = new AtomicLong();
+        private final AtomicLong rowsUnchanged = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private volatile BeerImportStatus status = BeerImportStatus.RUNNING;
+        private volatile String error;
+        private volatile LocalDateTime finishedDate;
+        private volatile long finishedNanos;
+
+        private BeerImportJob(UUID id, String fileName, boolean incremental) {
+            this.id = id;
+            this.fileName = fileName;
+            this.incremental = incremental;
+        }
+
+        private void finish(BeerImportStatus status, String error) {
+            this.finishedNanos = System.nanoTime();
+            this.finishedDate = LocalDateTime.now();
+            this.error = error;
+            this.status = status;
+        }
+
+        private BeerImportJobDTO toDto() {
+            long endNanos = status == BeerImportStatus.RUNNING ? System.nanoTime() : finishedNanos;
+            long elapsedMillis = Math.max((endNanos - startedNanos) / 1_000_000, 1);
+
+            return BeerImportJobDTO.builder()
+                    .id(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .incremental(incremental)
+                    .rowsParsed(rowsParsed.get())
+                    .rowsInserted(rowsInserted.get())
+                    .rowsUpdated(rowsUpdated.get())
+                    .rowsUnchanged(rowsUnchanged.get())
+                    .rowsRejected(rowsRejected.get())
+                    .rowsPerSecond(rowsParsed.get() * 1000 / elapsedMillis)
+                    .error(error)
+                    .startedDate(startedDate)
+                    .finishedDate(finishedDate)
+                    .build();
+        }
+    }
+}
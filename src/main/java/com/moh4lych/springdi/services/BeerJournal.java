@@ -0,0 +1,459 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerDTO;
+import com.moh4lych.springdi.model.BeerStyle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log and snapshots for {@link BeerServiceImpl}. Every write is appended to a memory-mapped log
+ * segment as a full beer or a delete, framed by its length and CRC. Writers wait for durability through group
+ * commit: whoever finds no flush running forces the segment for every record appended so far. A checkpoint
+ * rolls to a new segment and snapshots the store; recovery loads the newest snapshot, replays the segments
+ * from the one it names and stops at the first torn record.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("springdi.memory.journal.dir")
+public class BeerJournal implements Closeable {
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int RECORD_HEADER = Integer.BYTES * 2;
+    private static final long SNAPSHOT_MAGIC = 0x42454552534e4150L;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final long checkpointAfter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private long bytesSinceCheckpoint;
+
+    public BeerJournal(@Value("${springdi.memory.journal.dir}") Path dir,
+                       @Value("${springdi.memory.journal.segment-size:64MB}") DataSize segmentSize,
+                       @Value("${springdi.memory.journal.checkpoint-after:256MB}") DataSize checkpointAfter) {
+        this.dir = dir;
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.checkpointAfter = checkpointAfter.toBytes();
+    }
+
+    /**
+     * Replays the newest snapshot and the log written after it, then opens a fresh segment for appends.
+     */
+    public void recover(Consumer<BeerDTO> put, Consumer<UUID> delete) {
+        long start = System.nanoTime();
+        long records = 0;
+
+        try {
+            Files.createDirectories(dir);
+            List<Long> snapshots = fileNumbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            long firstSegment = 0;
+
+            if (!snapshots.isEmpty()) {
+                firstSegment = snapshots.getLast();
+                records += readSnapshot(snapshotPath(firstSegment), put);
+            }
+
+            long lastSegment = firstSegment - 1;
+            for (long number : fileNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (number >= firstSegment) {
+                    records += replaySegment(segmentPath(number), put, delete);
+                    lastSegment = number;
+                }
+            }
+
+            lock.lock();
+            try {
+                openSegment(lastSegment + 1);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Recovered {} journal records from {} in {} ms", records, dir,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public long append(BeerDTO beerDTO) {
+        return append(PUT, encode(beerDTO));
+    }
+
+    public long appendDelete(UUID beerId) {
+        ByteBuffer body = ByteBuffer.allocate(Long.BYTES * 2)
+                .putLong(beerId.getMostSignificantBits())
+                .putLong(beerId.getLeastSignificantBits());
+        return append(DELETE, body.array());
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk. Concurrent callers share one force.
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+
+                flushing = true;
+                long target = appended;
+                MappedByteBuffer toForce = segment;
+                lock.unlock();
+
+                try {
+                    toForce.force();
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    durable = Math.max(durable, target);
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean needsCheckpoint() {
+        lock.lock();
+        try {
+            return bytesSinceCheckpoint >= checkpointAfter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a new segment and returns its number. A snapshot of the store taken with no writes in between
+     * must be passed to {@link #writeSnapshot} with that number.
+     */
+    public long roll() {
+        lock.lock();
+        try {
+            rollSegment();
+            bytesSinceCheckpoint = 0;
+            return segmentNumber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void writeSnapshot(long firstSegment, Collection<BeerDTO> beers) {
+        Path snapshot = snapshotPath(firstSegment);
+        Path temp = dir.resolve(snapshot.getFileName() + ".tmp");
+
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out),
+                        64 * 1024));
+                data.writeLong(SNAPSHOT_MAGIC);
+                data.writeInt(beers.size());
+
+                for (BeerDTO beerDTO : beers) {
+                    writeRecord(data, PUT, encode(beerDTO));
+                }
+
+                data.flush();
+                out.force(true);
+            }
+
+            Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (long number : fileNumbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (number < firstSegment) {
+                    Files.deleteIfExists(snapshotPath(number));
+                }
+            }
+            for (long number : fileNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (number < firstSegment) {
+                    Files.deleteIfExists(segmentPath(number));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Wrote snapshot of {} beers to {}", beers.size(), snapshot);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                segment.force();
+                durable = appended;
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(byte type, byte[] body) {
+        int length = body.length + 1;
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(body);
+
+        lock.lock();
+        try {
+            if (segment.remaining() < RECORD_HEADER + length) {
+                rollSegment();
+
+                if (segment.remaining() < RECORD_HEADER + length) {
+                    throw new IllegalArgumentException("Journal record of " + length + " bytes exceeds segment size");
+                }
+            }
+
+            segment.putInt(length).putInt((int) crc.getValue()).put(type).put(body);
+            bytesSinceCheckpoint += RECORD_HEADER + length;
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rollSegment() {
+        try {
+            segment.force();
+            durable = appended;
+            channel.close();
+            openSegment(segmentNumber + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segmentNumber = number;
+        channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private long readSnapshot(Path snapshot, Consumer<BeerDTO> put) throws IOException {
+        try (FileChannel in = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+
+            if (buffer.remaining() < Long.BYTES + Integer.BYTES || buffer.getLong() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Not a beer snapshot: " + snapshot);
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                if (!readRecord(buffer, put, id -> {
+                })) {
+                    throw new IllegalStateException("Corrupt beer snapshot: " + snapshot);
+                }
+            }
+
+            return count;
+        }
+    }
+
+    private long replaySegment(Path path, Consumer<BeerDTO> put, Consumer<UUID> delete) throws IOException {
+        long records = 0;
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+
+            while (readRecord(buffer, put, delete)) {
+                records++;
+            }
+            bytesSinceCheckpoint += buffer.position();
+        }
+
+        return records;
+    }
+
+    private static boolean readRecord(ByteBuffer buffer, Consumer<BeerDTO> put, Consumer<UUID> delete) {
+        if (buffer.remaining() < RECORD_HEADER + 1) {
+            return false;
+        }
+
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int crc = buffer.getInt();
+
+        if (length <= 0 || length > buffer.remaining()) {
+            buffer.position(start);
+            return false;
+        }
+
+        ByteBuffer payload = buffer.slice(buffer.position(), length);
+        CRC32 actual = new CRC32();
+        actual.update(payload.duplicate());
+
+        if ((int) actual.getValue() != crc) {
+            buffer.position(start);
+            return false;
+        }
+
+        buffer.position(buffer.position() + length);
+        byte type = payload.get();
+
+        if (type == PUT) {
+            put.accept(decode(payload));
+        } else if (type == DELETE) {
+            delete.accept(new UUID(payload.getLong(), payload.getLong()));
+        } else {
+            buffer.position(start);
+            return false;
+        }
+
+        return true;
+    }
+
+    private static void writeRecord(DataOutputStream out, byte type, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(body);
+
+        out.writeInt(body.length + 1);
+        out.writeInt((int) crc.getValue());
+        out.writeByte(type);
+        out.write(body);
+    }
+
+    private static byte[] encode(BeerDTO beerDTO) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(beerDTO.getId().getMostSignificantBits());
+            out.writeLong(beerDTO.getId().getLeastSignificantBits());
+            writeInteger(out, beerDTO.getVersion());
+            writeString(out, beerDTO.getBeerName());
+            writeString(out, beerDTO.getBeerStyle() != null ? beerDTO.getBeerStyle().name() : null);
+            writeString(out, beerDTO.getUpc());
+            writeInteger(out, beerDTO.getQuantityOnHand());
+            writeString(out, beerDTO.getPrice() != null ? beerDTO.getPrice().toString() : null);
+            writeString(out, beerDTO.getCreatedDate() != null ? beerDTO.getCreatedDate().toString() : null);
+            writeString(out, beerDTO.getUpdateDate() != null ? beerDTO.getUpdateDate().toString() : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static BeerDTO decode(ByteBuffer in) {
+        UUID id = new UUID(in.getLong(), in.getLong());
+        Integer version = readInteger(in);
+        String beerName = readString(in);
+        String beerStyle = readString(in);
+        String upc = readString(in);
+        Integer quantityOnHand = readInteger(in);
+        String price = readString(in);
+        String createdDate = readString(in);
+        String updateDate = readString(in);
+
+        return BeerDTO.builder()
+                .id(id)
+                .version(version)
+                .beerName(beerName)
+                .beerStyle(beerStyle != null ? BeerStyle.valueOf(beerStyle) : null)
+                .upc(upc)
+                .quantityOnHand(quantityOnHand)
+                .price(price != null ? new BigDecimal(price) : null)
+                .createdDate(createdDate != null ? LocalDateTime.parse(createdDate) : null)
+                .updateDate(updateDate != null ? LocalDateTime.parse(updateDate) : null)
+                .build();
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(ByteBuffer in) {
+        return in.get() != 0 ? in.getInt() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Long> fileNumbers(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private Path snapshotPath(long number) {
+        return dir.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX);
+    }
+}
@@ -0,0 +1,48 @@
+package com.moh4lych.springdi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moh4lych.springdi.model.BeerDTO;
+import com.moh4lych.springdi.model.BeerStyle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Component
+public class BeerListCache {
+    private final BeerCatalogGeneration beerCatalogGeneration;
+    private final Cache<Key, Page<BeerDTO>> cache;
+
+    public BeerListCache(BeerCatalogGeneration beerCatalogGeneration, MeterRegistry meterRegistry,
+                         @Value("${springdi.cache.beer-pages.maximum-size:1000}") long maximumSize,
+                         @Value("${springdi.cache.beer-pages.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.beerCatalogGeneration = beerCatalogGeneration;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "beerPages");
+    }
+
+    public Page<BeerDTO> get(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize,
+                             Supplier<Page<BeerDTO>> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+
+        Key key = new Key(beerCatalogGeneration.current(), beerName, beerStyle, pageNumber, pageSize);
+        return cache.get(key, ignored -> loader.get());
+    }
+
+    private record Key(long generation, String beerName, BeerStyle beerStyle, Integer pageNumber,
+                       Integer pageSize) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerNameView;
+import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over beer names, used to answer substring searches without a
+ * leading-wildcard LIKE scan. It is rebuilt from the database on startup and kept current by
+ * {@link BeerServiceJPA}; searches shorter than a trigram or containing LIKE wildcards are not
+ * answered and fall back to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BeerNameIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final BeerRepository beerRepository;
+
+    private final Map<UUID, IndexedBeer> beers = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private volatile boolean ready = false;
+
+    /**
+     * Indexes every beer in the database. Beers already indexed under a different name or style, for example
+     * after a bulk import updated them, are re-indexed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+
+        try (Stream<BeerNameView> views = beerRepository.streamAllNames()) {
+            views.forEach(view -> {
+                IndexedBeer indexed = new IndexedBeer(normalize(view.getBeerName()), view.getBeerStyle());
+
+                if (!indexed.equals(beers.get(view.getId()))) {
+                    put(view.getId(), indexed);
+                }
+            });
+        }
+
+        ready = true;
+        log.info("Indexed {} beer names in {} ms", beers.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean canSearch(String beerName) {
+        return ready && beerName.length() >= GRAM_LENGTH && beerName.indexOf('%') < 0 && beerName.indexOf('_') < 0;
+    }
+
+    public List<UUID> search(String beerName, BeerStyle beerStyle) {
+        String needle = normalize(beerName);
+        Set<UUID> candidates = null;
+
+        for (String gram : grams(needle)) {
+            Set<UUID> posting = postings.getOrDefault(gram, Set.of());
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (UUID id : candidates) {
+            IndexedBeer indexed = beers.get(id);
+            if (indexed != null && indexed.name().contains(needle)
+                    && (beerStyle == null || beerStyle == indexed.style())) {
+                matches.add(new Match(id, indexed.name()));
+            }
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparing(Match::name).thenComparing(Match::id))
+                .map(Match::id)
+                .toList();
+    }
+
+    public void index(UUID id, String beerName, BeerStyle beerStyle) {
+        restoreOnRollback(id, put(id, new IndexedBeer(normalize(beerName), beerStyle)));
+    }
+
+    public void update(UUID id, String beerName, BeerStyle beerStyle) {
+        IndexedBeer existing = beers.get(id);
+
+        if (existing != null) {
+            index(id, beerName != null ? beerName : existing.name(), beerStyle != null ? beerStyle : existing.style());
+        }
+    }
+
+    public void remove(UUID id) {
+        restoreOnRollback(id, put(id, null));
+    }
+
+    private IndexedBeer put(UUID id, IndexedBeer replacement) {
+        AtomicReference<IndexedBeer> previous = new AtomicReference<>();
+
+        beers.compute(id, (key, existing) -> {
+            previous.set(existing);
+            if (existing != null) {
+                grams(existing.name()).forEach(gram -> removePosting(gram, key));
+            }
+            if (replacement != null) {
+                grams(replacement.name()).forEach(gram -> addPosting(gram, key));
+            }
+            return replacement;
+        });
+
+        return previous.get();
+    }
+
+    private void restoreOnRollback(UUID id, IndexedBeer previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    put(id, previous);
+                }
+            }
+        });
+    }
+
+    private void addPosting(String gram, UUID id) {
+        postings.compute(gram, (key, ids) -> {
+            Set<UUID> posting = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            posting.add(id);
+            return posting;
+        });
+    }
+
+    private void removePosting(String gram, UUID id) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String beerName) {
+        return beerName == null ? "" : beerName.toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexedBeer(String name, BeerStyle style) {
+    }
+
+    private record Match(UUID id, String name) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerOrderCreateDTO;
+import com.moh4lych.springdi.model.BeerOrderDTO;
+
+import java.util.Optional;
+
+public interface BeerOrderService {
+
+    /**
+     * Creates the order and allocates its full quantities, or nothing at all. Returns empty when the customer or
+     * one of the beers does not exist and throws {@link OutOfStockException} when a beer is short.
+     */
+    Optional<BeerOrderDTO> placeOrder(BeerOrderCreateDTO beerOrderCreateDTO);
+}
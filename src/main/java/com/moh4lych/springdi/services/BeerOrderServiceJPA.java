@@ -0,0 +1,77 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.entities.BeerOrder;
+import com.moh4lych.springdi.entities.BeerOrderLine;
+import com.moh4lych.springdi.entities.Customer;
+import com.moh4lych.springdi.mappers.BeerOrderMapper;
+import com.moh4lych.springdi.model.BeerOrderCreateDTO;
+import com.moh4lych.springdi.model.BeerOrderDTO;
+import com.moh4lych.springdi.model.BeerOrderLineCreateDTO;
+import com.moh4lych.springdi.repositories.BeerOrderRepository;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import com.moh4lych.springdi.repositories.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class BeerOrderServiceJPA implements BeerOrderService {
+    private final BeerOrderRepository beerOrderRepository;
+    private final BeerRepository beerRepository;
+    private final CustomerRepository customerRepository;
+    private final BeerOrderMapper beerOrderMapper;
+    private final BeerCache beerCache;
+    private final BeerCatalogGeneration beerCatalogGeneration;
+
+    @Override
+    @Transactional
+    public Optional<BeerOrderDTO> placeOrder(BeerOrderCreateDTO beerOrderCreateDTO) {
+        Optional<Customer> customer = customerRepository.findById(beerOrderCreateDTO.getCustomerId());
+        // One allocation per beer, taken in id order so two orders over the same beers lock rows in the same order.
+        Map<UUID, Integer> quantities = new TreeMap<>();
+
+        for (BeerOrderLineCreateDTO line : beerOrderCreateDTO.getBeerOrderLines()) {
+            quantities.merge(line.getBeerId(), line.getOrderQuantity(), Math::addExact);
+        }
+
+        if (customer.isEmpty() || beerRepository.countByIdIn(quantities.keySet()) != quantities.size()) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        quantities.forEach((beerId, quantity) -> {
+            if (beerRepository.allocateStock(beerId, quantity, now) == 0) {
+                throw new OutOfStockException(beerId);
+            }
+
+            beerCache.evict(beerId);
+        });
+        // Stock is part of every listing page and the listing ETag is catalog-wide, so an order has to drop the
+        // whole page cache rather than just the pages holding these beers. Under order-heavy load the page cache
+        // mostly misses; single-beer reads only lose the entries evicted above.
+        beerCatalogGeneration.bump();
+
+        BeerOrder beerOrder = BeerOrder.builder()
+                .customerRef(beerOrderCreateDTO.getCustomerRef())
+                .customer(customer.get())
+                .beerOrderLines(new HashSet<>())
+                .build();
+
+        quantities.forEach((beerId, quantity) -> beerOrder.getBeerOrderLines().add(BeerOrderLine.builder()
+                .beerOrder(beerOrder)
+                .beer(beerRepository.getReferenceById(beerId))
+                .orderQuantity(quantity)
+                .quantityAllocated(quantity)
+                .build()));
+
+        return Optional.of(beerOrderMapper.beerOrderToBeerOrderDto(beerOrderRepository.saveAndFlush(beerOrder)));
+    }
+}
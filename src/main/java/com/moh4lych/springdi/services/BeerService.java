@@ -2,22 +2,39 @@ package com.moh4lych.springdi.services;
 
 import com.moh4lych.springdi.model.BeerDTO;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface BeerService {
+    int MAX_PAGE_SIZE = 1000;
 
     Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize);
 
+    Slice<BeerDTO> listBeersSlice(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize);
+
+    KeysetPage<BeerDTO> listBeersAfter(String beerName, BeerStyle beerStyle, KeysetCursor after, Integer pageSize,
+                                       boolean withCount);
+
+    void exportBeers(BeerStyle beerStyle, Consumer<BeerDTO> consumer);
+
     Optional<BeerDTO> getBeerById(UUID id);
 
     BeerDTO saveNewBeer(BeerDTO beerDTO);
 
-    Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO);
+    List<BeerDTO> saveNewBeers(List<BeerDTO> beerDTOs);
+
+    Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO, Integer expectedVersion);
 
     Optional<BeerDTO> deleteBeerById(UUID beerId);
 
-    Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO);
+    Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO, Integer expectedVersion);
+
+    String getCatalogVersion();
 }
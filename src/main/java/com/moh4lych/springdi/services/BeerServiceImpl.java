@@ -2,68 +2,169 @@ package com.moh4lych.springdi.services;
 
 import com.moh4lych.springdi.model.BeerDTO;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
+/**
+ * In-memory beer catalogue. Beers live in a concurrent map as snapshots that are replaced, never mutated, and
+ * are indexed by name and by style in skip lists ordered like the keyset cursor. Reads take no locks: index
+ * entries are checked against the current snapshot, so a stale entry left by a concurrent rename is skipped.
+ * Writes to one beer are serialised by {@link ConcurrentMap#compute}. Callers always get copies. When
+ * {@code springdi.memory.journal.dir} is set, writes are also logged to a {@link BeerJournal}.
+ */
 @Slf4j
 @Service
 public class BeerServiceImpl implements BeerService {
-    private Map<UUID, BeerDTO> beerMap;
+    private static final int DEFAULT_PAGE_NUMBER = 0;
+    private static final int DEFAULT_PAGE_SIZE = 25;
+
+    private final ConcurrentMap<UUID, BeerDTO> beerMap = new ConcurrentHashMap<>();
+    private final NavigableSet<IndexKey> nameIndex = new ConcurrentSkipListSet<>();
+    private final Map<BeerStyle, NavigableSet<IndexKey>> styleIndex = new EnumMap<>(BeerStyle.class);
+    private final AtomicLong modificationCount = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final BeerJournal beerJournal;
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean checkpointing = new AtomicBoolean();
 
     public BeerServiceImpl() {
-        this.beerMap = new HashMap<>();
+        this((BeerJournal) null);
+    }
+
+    @Autowired
+    public BeerServiceImpl(ObjectProvider<BeerJournal> beerJournal) {
+        this(beerJournal.getIfAvailable());
+    }
+
+    /**
+     * With a journal the store is rebuilt from it and every write is durable before it returns. The sample beers
+     * are only added to an empty store.
+     */
+    BeerServiceImpl(BeerJournal beerJournal) {
+        this.beerJournal = beerJournal;
+
+        for (BeerStyle beerStyle : BeerStyle.values()) {
+            styleIndex.put(beerStyle, new ConcurrentSkipListSet<>());
+        }
+
+        if (beerJournal != null) {
+            beerJournal.recover(beerDTO -> store(beerDTO.getId(), existing -> beerDTO),
+                    beerId -> store(beerId, existing -> null));
+        }
+
+        if (!beerMap.isEmpty()) {
+            return;
+        }
 
         BeerDTO beerDTO1 = BeerDTO.builder()
-                .id(UUID.randomUUID())
-                .version(1)
                 .beerName("Galaxy Cat")
                 .beerStyle(BeerStyle.PALE_ALE)
                 .upc("12356")
                 .price(new BigDecimal("12.99"))
                 .quantityOnHand(122)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
                 .build();
 
         BeerDTO beerDTO2 = BeerDTO.builder()
-                .id(UUID.randomUUID())
-                .version(1)
                 .beerName("Crank")
                 .beerStyle(BeerStyle.PALE_ALE)
                 .upc("12356222")
                 .price(new BigDecimal("11.99"))
                 .quantityOnHand(392)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
                 .build();
 
         BeerDTO beerDTO3 = BeerDTO.builder()
-                .id(UUID.randomUUID())
-                .version(1)
                 .beerName("Sunshine City")
                 .beerStyle(BeerStyle.IPA)
                 .upc("12356")
                 .price(new BigDecimal("13.99"))
                 .quantityOnHand(144)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
                 .build();
 
-        beerMap.put(beerDTO1.getId(), beerDTO1);
-        beerMap.put(beerDTO2.getId(), beerDTO2);
-        beerMap.put(beerDTO3.getId(), beerDTO3);
+        saveNewBeer(beerDTO1);
+        saveNewBeer(beerDTO2);
+        saveNewBeer(beerDTO3);
     }
 
     @Override
     public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize) {
-        return new PageImpl<>(new ArrayList<>(beerMap.values()));
+        PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+        List<BeerDTO> content = matching(beerName, beerStyle, null)
+                .skip(pageRequest.getOffset())
+                .limit(pageRequest.getPageSize())
+                .map(BeerServiceImpl::copy)
+                .toList();
+        long total = StringUtils.hasText(beerName) || beerStyle != null
+                ? matching(beerName, beerStyle, null).count()
+                : beerMap.size();
+
+        return new PageImpl<>(content, pageRequest, total);
+    }
+
+    @Override
+    public Slice<BeerDTO> listBeersSlice(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize) {
+        PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+        List<BeerDTO> content = matching(beerName, beerStyle, null)
+                .skip(pageRequest.getOffset())
+                .limit(pageRequest.getPageSize() + 1L)
+                .map(BeerServiceImpl::copy)
+                .toList();
+        boolean hasNext = content.size() > pageRequest.getPageSize();
+
+        return new SliceImpl<>(hasNext ? content.subList(0, pageRequest.getPageSize()) : content, pageRequest,
+                hasNext);
+    }
+
+    @Override
+    public KeysetPage<BeerDTO> listBeersAfter(String beerName, BeerStyle beerStyle, KeysetCursor after,
+                                              Integer pageSize, boolean withCount) {
+        KeysetCursor cursor = Objects.requireNonNullElse(after, KeysetCursor.FIRST);
+        int queryPageSize = resolvePageSize(pageSize);
+        List<BeerDTO> content = matching(beerName, beerStyle, cursor)
+                .limit(queryPageSize + 1L)
+                .map(BeerServiceImpl::copy)
+                .toList();
+        String next = null;
+
+        if (content.size() > queryPageSize) {
+            content = content.subList(0, queryPageSize);
+            next = new KeysetCursor(content.getLast().getBeerName(), content.getLast().getId()).encode();
+        }
+
+        return KeysetPage.<BeerDTO>builder()
+                .content(content)
+                .next(next)
+                .totalElements(withCount ? matching(beerName, beerStyle, null).count() : null)
+                .build();
+    }
+
+    @Override
+    public void exportBeers(BeerStyle beerStyle, Consumer<BeerDTO> consumer) {
+        matching(null, beerStyle, null).map(BeerServiceImpl::copy).forEach(consumer);
     }
 
     @Override
@@ -71,16 +172,17 @@ public class BeerServiceImpl implements BeerService {
 
         log.debug("Get Beer by Id - in service. Id: " + id.toString());
 
-        return Optional.of(beerMap.get(id));
+        return Optional.ofNullable(beerMap.get(id)).map(BeerServiceImpl::copy);
     }
 
     @Override
     public BeerDTO saveNewBeer(BeerDTO beerDTO) {
-
+        LocalDateTime now = LocalDateTime.now();
         BeerDTO savedBeerDTO = BeerDTO.builder()
                 .id(UUID.randomUUID())
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
+                .version(0)
+                .createdDate(now)
+                .updateDate(now)
                 .beerName(beerDTO.getBeerName())
                 .beerStyle(beerDTO.getBeerStyle())
                 .quantityOnHand(beerDTO.getQuantityOnHand())
@@ -88,54 +190,261 @@ public class BeerServiceImpl implements BeerService {
                 .price(beerDTO.getPrice())
                 .build();
 
-        beerMap.put(savedBeerDTO.getId(), savedBeerDTO);
+        return copy(write(savedBeerDTO.getId(), existing -> savedBeerDTO));
+    }
 
-        return savedBeerDTO;
+    @Override
+    public List<BeerDTO> saveNewBeers(List<BeerDTO> beerDTOs) {
+        return beerDTOs.stream().map(this::saveNewBeer).toList();
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO) {
-        BeerDTO existing = beerMap.get(beerId);
-        existing.setBeerName(beerDTO.getBeerName());
-        existing.setPrice(beerDTO.getPrice());
-        existing.setUpc(beerDTO.getUpc());
-        existing.setQuantityOnHand(beerDTO.getQuantityOnHand());
-        existing.setUpdateDate(LocalDateTime.now());
-        return Optional.of(existing);
+    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO, Integer expectedVersion) {
+        return Optional.ofNullable(write(beerId, existing -> {
+            if (existing == null) {
+                return null;
+            }
+
+            checkVersion(existing, expectedVersion);
+            return nextVersion(existing)
+                    .beerName(beerDTO.getBeerName())
+                    .beerStyle(beerDTO.getBeerStyle())
+                    .price(beerDTO.getPrice())
+                    .upc(beerDTO.getUpc())
+                    .quantityOnHand(beerDTO.getQuantityOnHand())
+                    .build();
+        })).map(BeerServiceImpl::copy);
     }
 
     @Override
     public Optional<BeerDTO> deleteBeerById(UUID beerId) {
-        Optional<BeerDTO> beerDTO = Optional.of(beerMap.get(beerId));
-        beerMap.remove(beerId);
-        return beerDTO;
+        BeerDTO[] deleted = new BeerDTO[1];
+
+        write(beerId, existing -> {
+            deleted[0] = existing;
+            return null;
+        });
+
+        return Optional.ofNullable(deleted[0]).map(BeerServiceImpl::copy);
     }
 
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO) {
-        BeerDTO existing = beerMap.get(beerId);
+    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO, Integer expectedVersion) {
+        return Optional.ofNullable(write(beerId, existing -> {
+            if (existing == null) {
+                return null;
+            }
+
+            checkVersion(existing, expectedVersion);
+            BeerDTO.BeerDTOBuilder patched = nextVersion(existing);
+
+            if (StringUtils.hasText(beerDTO.getBeerName())) {
+                patched.beerName(beerDTO.getBeerName());
+            }
+
+            if (beerDTO.getBeerStyle() != null) {
+                patched.beerStyle(beerDTO.getBeerStyle());
+            }
+
+            if (beerDTO.getPrice() != null) {
+                patched.price(beerDTO.getPrice());
+            }
+
+            if (beerDTO.getQuantityOnHand() != null) {
+                patched.quantityOnHand(beerDTO.getQuantityOnHand());
+            }
+
+            if (StringUtils.hasText(beerDTO.getUpc())) {
+                patched.upc(beerDTO.getUpc());
+            }
+
+            return patched.build();
+        })).map(BeerServiceImpl::copy);
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return epoch + "-" + modificationCount.get();
+    }
 
-        if (StringUtils.hasText(beerDTO.getBeerName())) {
-            existing.setBeerName(beerDTO.getBeerName());
+    /**
+     * Applies a write and, with a journal, logs it from inside the same atomic update so the log order per beer
+     * matches the store. The caller only returns once the record is durable.
+     */
+    private BeerDTO write(UUID beerId, UnaryOperator<BeerDTO> update) {
+        if (beerJournal == null) {
+            return store(beerId, update);
         }
 
-        if (beerDTO.getBeerStyle() != null) {
-            existing.setBeerStyle(beerDTO.getBeerStyle());
+        long[] sequence = {0};
+        BeerDTO written;
+
+        checkpointLock.readLock().lock();
+        try {
+            written = store(beerId, existing -> {
+                BeerDTO updated = update.apply(existing);
+
+                if (updated != null) {
+                    sequence[0] = beerJournal.append(updated);
+                } else if (existing != null) {
+                    sequence[0] = beerJournal.appendDelete(beerId);
+                }
+
+                return updated;
+            });
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+
+        beerJournal.awaitDurable(sequence[0]);
+
+        if (beerJournal.needsCheckpoint()) {
+            checkpoint();
+        }
+
+        return written;
+    }
+
+    /**
+     * Copies the store while writes are held off, rolls the journal to a new segment and writes the copy as a
+     * snapshot once writes resume. The stored DTOs are never mutated, so the copy stays consistent.
+     */
+    private void checkpoint() {
+        if (!checkpointing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<BeerDTO> beers;
+            long firstSegment;
+
+            checkpointLock.writeLock().lock();
+            try {
+                beers = List.copyOf(beerMap.values());
+                firstSegment = beerJournal.roll();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+
+            beerJournal.writeSnapshot(firstSegment, beers);
+        } finally {
+            checkpointing.set(false);
+        }
+    }
+
+    /**
+     * Replaces the snapshot stored for {@code beerId} and moves its index entries. New entries are added before
+     * the old ones are dropped so a concurrent reader never loses a beer that is only being renamed.
+     */
+    private BeerDTO store(UUID beerId, UnaryOperator<BeerDTO> update) {
+        return beerMap.compute(beerId, (id, existing) -> {
+            BeerDTO updated = update.apply(existing);
+            IndexKey updatedKey = updated != null ? IndexKey.of(updated.getBeerName(), id) : null;
+
+            if (updated != null) {
+                nameIndex.add(updatedKey);
+                if (updated.getBeerStyle() != null) {
+                    styleIndex.get(updated.getBeerStyle()).add(updatedKey);
+                }
+            }
+
+            if (existing != null) {
+                IndexKey existingKey = IndexKey.of(existing.getBeerName(), id);
+                boolean renamed = !existingKey.equals(updatedKey);
+
+                if (renamed) {
+                    nameIndex.remove(existingKey);
+                }
+                if (existing.getBeerStyle() != null
+                        && (renamed || existing.getBeerStyle() != updated.getBeerStyle())) {
+                    styleIndex.get(existing.getBeerStyle()).remove(existingKey);
+                }
+            }
+
+            if (existing != updated) {
+                modificationCount.incrementAndGet();
+            }
+
+            return updated;
+        });
+    }
+
+    private Stream<BeerDTO> matching(String beerName, BeerStyle beerStyle, KeysetCursor after) {
+        NavigableSet<IndexKey> index = beerStyle == null ? nameIndex : styleIndex.get(beerStyle);
+        NavigableSet<IndexKey> range = after == null
+                ? index
+                : index.tailSet(IndexKey.of(after.name(), after.id()), false);
+        String term = StringUtils.hasText(beerName) ? beerName.toLowerCase(Locale.ROOT) : null;
+        Set<UUID> seen = new HashSet<>();
+
+        return range.stream()
+                .map(key -> current(key, beerStyle))
+                .filter(Objects::nonNull)
+                .filter(beerDTO -> term == null || nameOf(beerDTO).toLowerCase(Locale.ROOT).contains(term))
+                .filter(beerDTO -> seen.add(beerDTO.getId()));
+    }
+
+    private BeerDTO current(IndexKey key, BeerStyle beerStyle) {
+        BeerDTO beerDTO = beerMap.get(key.id());
+
+        if (beerDTO == null || !key.beerName().equals(nameOf(beerDTO))
+                || (beerStyle != null && beerStyle != beerDTO.getBeerStyle())) {
+            return null;
         }
 
-        if (beerDTO.getPrice() != null) {
-            existing.setPrice(beerDTO.getPrice());
+        return beerDTO;
+    }
+
+    private PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
+        int queryPageNumber = DEFAULT_PAGE_NUMBER;
+
+        if (Objects.nonNull(pageNumber) && pageNumber > 0) {
+            queryPageNumber = pageNumber - 1;
         }
 
-        if (beerDTO.getQuantityOnHand() != null) {
-            existing.setQuantityOnHand(beerDTO.getQuantityOnHand());
+        return PageRequest.of(queryPageNumber, resolvePageSize(pageSize));
+    }
+
+    private static int resolvePageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return DEFAULT_PAGE_SIZE;
         }
 
-        if (StringUtils.hasText(beerDTO.getUpc())) {
-            existing.setUpc(beerDTO.getUpc());
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    private static BeerDTO.BeerDTOBuilder nextVersion(BeerDTO existing) {
+        return existing.toBuilder()
+                .version(existing.getVersion() + 1)
+                .updateDate(LocalDateTime.now());
+    }
+
+    private static BeerDTO copy(BeerDTO beerDTO) {
+        return beerDTO.toBuilder().build();
+    }
+
+    private static String nameOf(BeerDTO beerDTO) {
+        return Objects.requireNonNullElse(beerDTO.getBeerName(), "");
+    }
+
+    private static void checkVersion(BeerDTO existing, Integer expectedVersion) {
+        if (existing != null && expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(BeerDTO.class, existing.getId());
         }
+    }
 
-        existing.setUpdateDate(LocalDateTime.now());
-        return Optional.of(existing);
+    /**
+     * Index key in keyset cursor order: beer name, then the id as text.
+     */
+    private record IndexKey(String beerName, UUID id, String idText) implements Comparable<IndexKey> {
+        static IndexKey of(String beerName, UUID id) {
+            return new IndexKey(Objects.requireNonNullElse(beerName, ""), id, id.toString());
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int byName = beerName.compareTo(other.beerName);
+            return byName != 0 ? byName : idText.compareTo(other.idText);
+        }
     }
 }
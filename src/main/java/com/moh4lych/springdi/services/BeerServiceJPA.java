@@ -5,21 +5,31 @@ import com.moh4lych.springdi.events.BeerCreatedEvent;
 import com.moh4lych.springdi.mappers.BeerMapper;
 import com.moh4lych.springdi.model.BeerDTO;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.repositories.BeerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.Objects;
-import java.util.Optional;
-import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Primary
@@ -28,113 +38,272 @@ public class BeerServiceJPA implements BeerService {
     private final BeerRepository beerRepository;
     private final BeerMapper beerMapper;
     private final ApplicationEventPublisher applicationEventPublisher;
+    private final BeerNameIndex beerNameIndex;
+    private final BeerCache beerCache;
+    private final BeerListCache beerListCache;
+    private final BeerCatalogGeneration beerCatalogGeneration;
+    private final BeerBatchWriter beerBatchWriter;
 
     private static final int DEFAULT_PAGE_NUMBER = 0;
     private static final int DEFAULT_PAGE_SIZE = 25;
 
     @Override
     public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize) {
-        Page<Beer> beers;
+        return beerListCache.get(beerName, beerStyle, pageNumber, pageSize,
+                () -> loadBeers(beerName, beerStyle, pageNumber, pageSize));
+    }
+
+    private Page<BeerDTO> loadBeers(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize) {
         PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
 
         if (StringUtils.hasText(beerName) && Objects.isNull(beerStyle)) {
-            beers = listBeersByName(beerName, pageRequest);
+            return listBeersByName(beerName, pageRequest);
         } else if (!StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
-            beers = listBeersByStyle(beerStyle, pageRequest);
+            return listBeersByStyle(beerStyle, pageRequest);
         } else if (StringUtils.hasText(beerName) && beerStyle != null) {
-            beers = listBeersByNameAndStyle(beerName, beerStyle, pageRequest);
-        } else {
-            beers = beerRepository.findAll(pageRequest);
+            return listBeersByNameAndStyle(beerName, beerStyle, pageRequest);
+        }
+
+        return beerRepository.findBeerDtos(pageRequest);
+    }
+
+    private Page<BeerDTO> listBeersByNameAndStyle(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
+        if (beerNameIndex.canSearch(beerName)) {
+            return listBeersFromIndex(beerName, beerStyle, pageRequest);
+        }
+
+        return beerRepository.findBeerDtosByBeerNameLikeAndBeerStyle("%" + beerName + "%", beerStyle, pageRequest);
+    }
+
+    private Page<BeerDTO> listBeersByName(String beerName, PageRequest pageRequest) {
+        if (beerNameIndex.canSearch(beerName)) {
+            return listBeersFromIndex(beerName, null, pageRequest);
+        }
+
+        return beerRepository.findBeerDtosByBeerNameLike("%" + beerName + "%", pageRequest);
+    }
+
+    private Page<BeerDTO> listBeersFromIndex(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
+        List<UUID> ids = beerNameIndex.search(beerName, beerStyle);
+        List<UUID> pageIds = ids.stream()
+                .skip(pageRequest.getOffset())
+                .limit(pageRequest.getPageSize())
+                .toList();
+
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, ids.size());
         }
 
-        return beers.map(beerMapper::beerToBeerDto);
+        Map<UUID, BeerDTO> beers = beerRepository.findBeerDtosByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(BeerDTO::getId, Function.identity()));
+
+        return new PageImpl<>(pageIds.stream().map(beers::get).filter(Objects::nonNull).toList(), pageRequest,
+                ids.size());
     }
 
-    private Page<Beer> listBeersByNameAndStyle(String beerName, BeerStyle beerStyle, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle, pageRequest);
+    private Page<BeerDTO> listBeersByStyle(BeerStyle beerStyle, PageRequest pageRequest) {
+        return beerRepository.findBeerDtosByBeerStyle(beerStyle, pageRequest);
     }
 
-    private Page<Beer> listBeersByName(String beerName, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerNameIsLikeIgnoreCase("%" + beerName + "%", pageRequest);
+    @Override
+    public Slice<BeerDTO> listBeersSlice(String beerName, BeerStyle beerStyle, Integer pageNumber, Integer pageSize) {
+        PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+
+        if (StringUtils.hasText(beerName) && Objects.isNull(beerStyle)) {
+            return beerRepository.findBeerDtoSliceByBeerNameLike("%" + beerName + "%", pageRequest);
+        } else if (!StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
+            return beerRepository.findBeerDtoSliceByBeerStyle(beerStyle, pageRequest);
+        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
+            return beerRepository.findBeerDtoSliceByBeerNameLikeAndBeerStyle("%" + beerName + "%", beerStyle,
+                    pageRequest);
+        }
+
+        return beerRepository.findBeerDtoSlice(pageRequest);
     }
 
-    private Page<Beer> listBeersByStyle(BeerStyle beerStyle, PageRequest pageRequest) {
-        return beerRepository.findAllByBeerStyle(beerStyle, pageRequest);
+    @Override
+    public KeysetPage<BeerDTO> listBeersAfter(String beerName, BeerStyle beerStyle, KeysetCursor after,
+                                              Integer pageSize, boolean withCount) {
+        KeysetCursor cursor = Objects.requireNonNullElse(after, KeysetCursor.FIRST);
+        int queryPageSize = resolvePageSize(pageSize);
+        Pageable lookAhead = PageRequest.ofSize(queryPageSize + 1);
+        List<BeerDTO> beers;
+
+        if (StringUtils.hasText(beerName) && Objects.isNull(beerStyle)) {
+            beers = beerRepository.findBeerDtosByBeerNameLikeAfter("%" + beerName + "%", cursor.name(), cursor.id(),
+                    lookAhead);
+        } else if (!StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
+            beers = beerRepository.findBeerDtosByBeerStyleAfter(beerStyle, cursor.name(), cursor.id(), lookAhead);
+        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
+            beers = beerRepository.findBeerDtosByBeerNameLikeAndBeerStyleAfter("%" + beerName + "%", beerStyle,
+                    cursor.name(), cursor.id(), lookAhead);
+        } else {
+            beers = beerRepository.findBeerDtosAfter(cursor.name(), cursor.id(), lookAhead);
+        }
+
+        List<BeerDTO> content = beers.size() > queryPageSize ? beers.subList(0, queryPageSize) : beers;
+        String next = null;
+
+        if (beers.size() > queryPageSize) {
+            BeerDTO last = content.getLast();
+            next = new KeysetCursor(last.getBeerName(), last.getId()).encode();
+        }
+
+        return KeysetPage.<BeerDTO>builder()
+                .content(content)
+                .next(next)
+                .totalElements(withCount ? countBeers(beerName, beerStyle) : null)
+                .build();
+    }
+
+    private long countBeers(String beerName, BeerStyle beerStyle) {
+        if (StringUtils.hasText(beerName) && Objects.isNull(beerStyle)) {
+            return beerRepository.countByBeerNameIsLikeIgnoreCase("%" + beerName + "%");
+        } else if (!StringUtils.hasText(beerName) && Objects.nonNull(beerStyle)) {
+            return beerRepository.countByBeerStyle(beerStyle);
+        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
+            return beerRepository.countByBeerNameIsLikeIgnoreCaseAndBeerStyle("%" + beerName + "%", beerStyle);
+        }
+
+        return beerRepository.count();
     }
 
     private PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
         int queryPageNumber = DEFAULT_PAGE_NUMBER;
-        int queryPageSize = DEFAULT_PAGE_SIZE;
 
         if (Objects.nonNull(pageNumber) && pageNumber > 0) {
             queryPageNumber = pageNumber - 1;
         }
-        if (Objects.nonNull(pageSize)) {
-            queryPageSize = pageSize;
+
+        return PageRequest.of(queryPageNumber, resolvePageSize(pageSize));
+    }
+
+    private int resolvePageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return DEFAULT_PAGE_SIZE;
         }
 
-        return PageRequest.of(queryPageNumber, queryPageSize);
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBeers(BeerStyle beerStyle, Consumer<BeerDTO> consumer) {
+        try (Stream<BeerDTO> beers = beerRepository.streamBeerDtos(beerStyle)) {
+            beers.forEach(consumer);
+        }
     }
 
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
-        return beerRepository.findById(id).map(beerMapper::beerToBeerDto);
+        return beerCache.get(id, beerRepository::findBeerDtoById);
     }
 
     @Override
     public BeerDTO saveNewBeer(BeerDTO beerDTO) {
         val newBeer = beerRepository.save(beerMapper.beerDtoToBeer(beerDTO));
+        beerCatalogGeneration.bump();
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         applicationEventPublisher.publishEvent(new BeerCreatedEvent(newBeer, authentication));
+        beerNameIndex.index(newBeer.getId(), newBeer.getBeerName(), newBeer.getBeerStyle());
 
         return beerMapper.beerToBeerDto(newBeer);
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO) {
+    public List<BeerDTO> saveNewBeers(List<BeerDTO> beerDTOs) {
+        List<Beer> newBeers = beerBatchWriter.persistAll(beerDTOs.stream().map(beerMapper::beerDtoToBeer).toList());
+        beerCatalogGeneration.bump();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return newBeers.stream().map(newBeer -> {
+            applicationEventPublisher.publishEvent(new BeerCreatedEvent(newBeer, authentication));
+            beerNameIndex.index(newBeer.getId(), newBeer.getBeerName(), newBeer.getBeerStyle());
+
+            return beerMapper.beerToBeerDto(newBeer);
+        }).toList();
+    }
+
+    @Override
+    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO, Integer expectedVersion) {
         return beerRepository.findById(beerId).map(foundBeer -> {
+            checkVersion(foundBeer, expectedVersion);
             foundBeer.setBeerName(beerDTO.getBeerName());
             foundBeer.setBeerStyle(beerDTO.getBeerStyle());
             foundBeer.setUpc(beerDTO.getUpc());
             foundBeer.setPrice(beerDTO.getPrice());
-            return beerMapper.beerToBeerDto(beerRepository.save(foundBeer));
+            Beer savedBeer = beerRepository.save(foundBeer);
+            beerCatalogGeneration.bump();
+            beerNameIndex.index(beerId, savedBeer.getBeerName(), savedBeer.getBeerStyle());
+
+            BeerDTO savedBeerDTO = beerMapper.beerToBeerDto(savedBeer);
+            beerCache.put(savedBeerDTO);
+            return savedBeerDTO;
         });
     }
 
     @Override
     public Optional<BeerDTO> deleteBeerById(UUID beerId) {
-        return beerRepository.findById(beerId).map(foundBeer -> {
-            beerRepository.deleteById(beerId);
-            return beerMapper.beerToBeerDto(foundBeer);
-        });
+        if (beerRepository.deleteBeer(beerId) == 0) {
+            return Optional.empty();
+        }
+
+        beerCatalogGeneration.bump();
+        beerNameIndex.remove(beerId);
+        beerCache.evict(beerId);
+        return Optional.of(BeerDTO.builder().id(beerId).build());
     }
 
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO) {
-        return beerRepository.findById(beerId).map(existing -> {
-            if (StringUtils.hasText(beerDTO.getBeerName())) {
-                existing.setBeerName(beerDTO.getBeerName());
-            }
+    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO, Integer expectedVersion) {
+        String beerName = StringUtils.hasText(beerDTO.getBeerName()) ? beerDTO.getBeerName() : null;
+        String upc = StringUtils.hasText(beerDTO.getUpc()) ? beerDTO.getUpc() : null;
 
-            if (beerDTO.getBeerStyle() != null) {
-                existing.setBeerStyle(beerDTO.getBeerStyle());
-            }
+        if (beerName == null && upc == null && beerDTO.getBeerStyle() == null && beerDTO.getPrice() == null
+                && beerDTO.getQuantityOnHand() == null) {
+            // nothing to change, so leave the version and updateDate alone and report the current row
+            return beerRepository.findBeerDtoById(beerId).map(foundBeerDTO -> {
+                if (expectedVersion != null && !expectedVersion.equals(foundBeerDTO.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Beer.class, beerId);
+                }
 
-            if (beerDTO.getPrice() != null) {
-                existing.setPrice(beerDTO.getPrice());
-            }
+                return foundBeerDTO;
+            });
+        }
 
-            if (beerDTO.getQuantityOnHand() != null) {
-                existing.setQuantityOnHand(beerDTO.getQuantityOnHand());
-            }
+        int updated = beerRepository.patchBeer(beerId, expectedVersion, beerName, beerDTO.getBeerStyle(), upc,
+                beerDTO.getPrice(), beerDTO.getQuantityOnHand(), LocalDateTime.now());
 
-            if (StringUtils.hasText(beerDTO.getUpc())) {
-                existing.setUpc(beerDTO.getUpc());
+        if (updated == 0) {
+            if (expectedVersion != null && beerRepository.existsById(beerId)) {
+                throw new ObjectOptimisticLockingFailureException(Beer.class, beerId);
             }
-            beerRepository.save(existing);
 
-            return beerMapper.beerToBeerDto(existing);
-        });
+            return Optional.empty();
+        }
+
+        beerCatalogGeneration.bump();
+
+        if (beerName != null || beerDTO.getBeerStyle() != null) {
+            beerNameIndex.update(beerId, beerName, beerDTO.getBeerStyle());
+        }
+
+        // re-read the row so the caller gets the new version for its ETag even without an If-Match
+        Optional<BeerDTO> patchedBeerDTO = beerRepository.findBeerDtoById(beerId);
+        patchedBeerDTO.ifPresentOrElse(beerCache::put, () -> beerCache.evict(beerId));
+
+        return patchedBeerDTO;
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return beerCatalogGeneration.tag();
+    }
+
+    private static void checkVersion(Beer beer, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(beer.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Beer.class, beer.getId());
+        }
     }
 }
@@ -1,17 +1,42 @@
 package com.moh4lych.springdi.services;
 
 import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface CustomerService {
+    int MAX_UNPAGINATED_CUSTOMERS = 1000;
+    int MAX_PAGE_SIZE = 1000;
 
     Optional<CustomerDTO> getCustomerById(UUID uuid);
 
+    /**
+     * Returns at most {@link #MAX_UNPAGINATED_CUSTOMERS} customers ordered by id; use
+     * {@link #listCustomersAfter} or {@link #exportCustomers} to read beyond that.
+     */
     List<CustomerDTO> getAllCustomers();
 
+    KeysetPage<CustomerDTO> listCustomersAfter(UUID after, Integer pageSize, boolean withCount);
+
+    /**
+     * Offset page in id order without a total count; {@code pageNumber} starts at 1.
+     */
+    Slice<CustomerDTO> listCustomersSlice(Integer pageNumber, Integer pageSize);
+
+    void exportCustomers(Consumer<CustomerDTO> consumer);
+
+    /**
+     * Finds customers by exact email and/or name prefix. Name results are ordered by (name, id) and paged with
+     * {@code after}; an email matches at most one customer.
+     */
+    KeysetPage<CustomerDTO> searchCustomers(String name, String email, KeysetCursor after, Integer pageSize);
+
     CustomerDTO saveNewCustomer(CustomerDTO customer);
 
     Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer);
@@ -1,96 +1,218 @@
 package com.moh4lych.springdi.services;
 
 import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
 
+/**
+ * In-memory customers. With {@code springdi.customer.off-heap=true} they are kept in an
+ * {@link OffHeapCustomerStore} instead of on the heap.
+ */
 @Service
-public class CustomerServiceImpl implements CustomerService {
+public class CustomerServiceImpl implements CustomerService, AutoCloseable {
 
-    private Map<UUID, CustomerDTO> customerMap;
+    private static final int DEFAULT_PAGE_SIZE = 25;
+
+    /**
+     * Unsigned (msb, lsb) order, which is the order of the id's string form and of the binary(16) id column.
+     */
+    private static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final CustomerStore customerStore;
+    private final NavigableSet<UUID> customerIds = new ConcurrentSkipListSet<>(ID_ORDER);
 
     public CustomerServiceImpl() {
-        CustomerDTO customer1 = CustomerDTO.builder()
-                .id(UUID.randomUUID())
-                .name("Customer 1")
-                .version(1)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
-                .build();
+        this(false);
+    }
 
-        CustomerDTO customer2 = CustomerDTO.builder()
-                .id(UUID.randomUUID())
-                .name("Customer 2")
-                .version(1)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
-                .build();
+    @Autowired
+    public CustomerServiceImpl(@Value("${springdi.customer.off-heap:false}") boolean offHeap) {
+        this(offHeap ? new OffHeapCustomerStore() : CustomerStore.onHeap());
+    }
 
-        CustomerDTO customer3 = CustomerDTO.builder()
-                .id(UUID.randomUUID())
-                .name("Customer 3")
-                .version(1)
-                .createdDate(LocalDateTime.now())
-                .updateDate(LocalDateTime.now())
-                .build();
+    CustomerServiceImpl(CustomerStore customerStore) {
+        this.customerStore = customerStore;
 
-        customerMap = new HashMap<>();
-        customerMap.put(customer1.getId(), customer1);
-        customerMap.put(customer2.getId(), customer2);
-        customerMap.put(customer3.getId(), customer3);
+        saveNewCustomer(CustomerDTO.builder().name("Customer 1").build());
+        saveNewCustomer(CustomerDTO.builder().name("Customer 2").build());
+        saveNewCustomer(CustomerDTO.builder().name("Customer 3").build());
     }
 
     @Override
     public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
-        CustomerDTO existing = customerMap.get(customerId);
-
-        if (StringUtils.hasText(customer.getName())) {
-            existing.setName(customer.getName());
-        }
-
-        return Optional.of(existing);
+        return customerStore.update(customerId, existing -> {
+            if (StringUtils.hasText(customer.getName())) {
+                existing.setName(customer.getName());
+            }
+            if (StringUtils.hasText(customer.getEmail())) {
+                existing.setEmail(customer.getEmail());
+            }
+
+            return touch(existing);
+        });
     }
 
     @Override
     public Boolean deleteCustomerById(UUID customerId) {
-        customerMap.remove(customerId);
-
-        return true;
+        boolean removed = customerStore.remove(customerId);
+        customerIds.remove(customerId);
+        return removed;
     }
 
     @Override
     public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customer) {
-        CustomerDTO existing = customerMap.get(customerId);
-        existing.setName(customer.getName());
-        return Optional.of(existing);
+        return customerStore.update(customerId, existing -> {
+            existing.setName(customer.getName());
+            existing.setEmail(customer.getEmail());
+            return touch(existing);
+        });
     }
 
     @Override
     public CustomerDTO saveNewCustomer(CustomerDTO customer) {
-
+        LocalDateTime now = LocalDateTime.now();
         CustomerDTO savedCustomer = CustomerDTO.builder()
                 .id(UUID.randomUUID())
                 .version(1)
-                .updateDate(LocalDateTime.now())
-                .createdDate(LocalDateTime.now())
+                .updateDate(now)
+                .createdDate(now)
                 .name(customer.getName())
+                .email(customer.getEmail())
                 .build();
 
-        customerMap.put(savedCustomer.getId(), savedCustomer);
+        customerStore.put(savedCustomer);
+        customerIds.add(savedCustomer.getId());
 
         return savedCustomer;
     }
 
     @Override
     public Optional<CustomerDTO> getCustomerById(UUID uuid) {
-        return Optional.of(customerMap.get(uuid));
+        return customerStore.get(uuid);
     }
 
     @Override
     public List<CustomerDTO> getAllCustomers() {
-        return new ArrayList<>(customerMap.values());
+        return readInIdOrder(customerIds, MAX_UNPAGINATED_CUSTOMERS);
+    }
+
+    @Override
+    public Slice<CustomerDTO> listCustomersSlice(Integer pageNumber, Integer pageSize) {
+        int queryPageNumber = Objects.nonNull(pageNumber) && pageNumber > 0 ? pageNumber - 1 : 0;
+        PageRequest pageRequest = PageRequest.of(queryPageNumber, resolvePageSize(pageSize));
+        List<CustomerDTO> customers = customerIds.stream()
+                .skip(pageRequest.getOffset())
+                .limit(pageRequest.getPageSize() + 1L)
+                .map(customerStore::get)
+                .flatMap(Optional::stream)
+                .toList();
+        boolean hasNext = customers.size() > pageRequest.getPageSize();
+
+        return new SliceImpl<>(hasNext ? customers.subList(0, pageRequest.getPageSize()) : customers, pageRequest,
+                hasNext);
+    }
+
+    @Override
+    public KeysetPage<CustomerDTO> listCustomersAfter(UUID after, Integer pageSize, boolean withCount) {
+        int queryPageSize = resolvePageSize(pageSize);
+        List<CustomerDTO> customers = readInIdOrder(after == null ? customerIds : customerIds.tailSet(after, false),
+                queryPageSize + 1);
+        List<CustomerDTO> content = customers.size() > queryPageSize
+                ? customers.subList(0, queryPageSize)
+                : customers;
+
+        return KeysetPage.<CustomerDTO>builder()
+                .content(content)
+                .next(customers.size() > queryPageSize ? content.getLast().getId().toString() : null)
+                .totalElements(withCount ? (long) customerStore.size() : null)
+                .build();
+    }
+
+    @Override
+    public void exportCustomers(Consumer<CustomerDTO> consumer) {
+        customerStore.values().forEach(consumer);
+    }
+
+    @Override
+    public void close() {
+        customerStore.close();
+    }
+
+    @Override
+    public KeysetPage<CustomerDTO> searchCustomers(String name, String email, KeysetCursor after, Integer pageSize) {
+        KeysetCursor cursor = Objects.requireNonNullElse(after, KeysetCursor.FIRST);
+        String namePrefix = Objects.requireNonNullElse(name, "");
+        int queryPageSize = StringUtils.hasText(email) ? 1 : resolvePageSize(pageSize);
+        List<CustomerDTO> customers = customerStore.values().stream()
+                .filter(customer -> customer.getName() != null && customer.getName().startsWith(namePrefix))
+                .filter(customer -> !StringUtils.hasText(email) || email.equalsIgnoreCase(customer.getEmail()))
+                .filter(customer -> isAfter(customer, cursor))
+                .sorted(Comparator.comparing(CustomerDTO::getName)
+                        .thenComparing(customer -> customer.getId().toString()))
+                .limit(queryPageSize + 1L)
+                .toList();
+        List<CustomerDTO> content = customers.size() > queryPageSize
+                ? customers.subList(0, queryPageSize)
+                : customers;
+        String next = null;
+
+        if (customers.size() > queryPageSize) {
+            CustomerDTO last = content.getLast();
+            next = new KeysetCursor(last.getName(), last.getId()).encode();
+        }
+
+        return KeysetPage.<CustomerDTO>builder()
+                .content(content)
+                .next(next)
+                .build();
+    }
+
+    private static boolean isAfter(CustomerDTO customer, KeysetCursor cursor) {
+        int byName = customer.getName().compareTo(cursor.name());
+        return byName > 0 || byName == 0 && customer.getId().toString().compareTo(cursor.id().toString()) > 0;
+    }
+
+    private static int resolvePageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Decodes at most {@code limit} customers, walking {@code ids} in order and skipping ids deleted meanwhile.
+     */
+    private List<CustomerDTO> readInIdOrder(Iterable<UUID> ids, int limit) {
+        List<CustomerDTO> customers = new ArrayList<>(Math.min(limit, customerStore.size()));
+
+        for (UUID id : ids) {
+            if (customers.size() == limit) {
+                break;
+            }
+            customerStore.get(id).ifPresent(customers::add);
+        }
+
+        return customers;
+    }
+
+    private static CustomerDTO touch(CustomerDTO customer) {
+        customer.setVersion(customer.getVersion() + 1);
+        customer.setUpdateDate(LocalDateTime.now());
+        return customer;
     }
 }
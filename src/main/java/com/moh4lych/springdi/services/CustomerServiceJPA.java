@@ -1,17 +1,25 @@
 package com.moh4lych.springdi.services;
 
+import com.moh4lych.springdi.entities.Customer;
 import com.moh4lych.springdi.mappers.CustomerMapper;
 import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.repositories.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +29,9 @@ public class CustomerServiceJPA implements CustomerService {
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
 
+    private static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
     @Override
     public Optional<CustomerDTO> getCustomerById(UUID uuid) {
         return Optional.ofNullable(customerMapper
@@ -29,11 +40,105 @@ public class CustomerServiceJPA implements CustomerService {
 
     @Override
     public List<CustomerDTO> getAllCustomers() {
-        return customerRepository.findAll().stream()
+        return customerRepository.findAllByOrderByIdAsc(PageRequest.ofSize(MAX_UNPAGINATED_CUSTOMERS)).stream()
                 .map(customerMapper::customerToCustomerDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Slice<CustomerDTO> listCustomersSlice(Integer pageNumber, Integer pageSize) {
+        int queryPageNumber = Objects.nonNull(pageNumber) && pageNumber > 0 ? pageNumber - 1 : 0;
+
+        return customerRepository.findSliceByOrderByIdAsc(PageRequest.of(queryPageNumber, resolvePageSize(pageSize)))
+                .map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    public KeysetPage<CustomerDTO> listCustomersAfter(UUID after, Integer pageSize, boolean withCount) {
+        int queryPageSize = resolvePageSize(pageSize);
+        List<CustomerDTO> customers = findCustomersAfter(after, queryPageSize + 1);
+        List<CustomerDTO> content = customers.size() > queryPageSize
+                ? customers.subList(0, queryPageSize)
+                : customers;
+
+        return KeysetPage.<CustomerDTO>builder()
+                .content(content)
+                .next(customers.size() > queryPageSize ? content.getLast().getId().toString() : null)
+                .totalElements(withCount ? customerRepository.count() : null)
+                .build();
+    }
+
+    /**
+     * Walks the customers in id order one keyset batch at a time, so neither the heap nor a database cursor
+     * has to hold more than a batch.
+     */
+    @Override
+    public void exportCustomers(Consumer<CustomerDTO> consumer) {
+        UUID after = null;
+        List<CustomerDTO> batch;
+
+        do {
+            batch = findCustomersAfter(after, EXPORT_BATCH_SIZE);
+            batch.forEach(consumer);
+
+            if (!batch.isEmpty()) {
+                after = batch.getLast().getId();
+            }
+        } while (batch.size() == EXPORT_BATCH_SIZE);
+    }
+
+    @Override
+    public KeysetPage<CustomerDTO> searchCustomers(String name, String email, KeysetCursor after, Integer pageSize) {
+        if (StringUtils.hasText(email)) {
+            Optional<Customer> customer = StringUtils.hasText(name)
+                    ? customerRepository.findByEmailAndNameStartingWith(email, name)
+                    : customerRepository.findByEmail(email);
+
+            return KeysetPage.<CustomerDTO>builder()
+                    .content(customer.map(customerMapper::customerToCustomerDto).stream().toList())
+                    .build();
+        }
+
+        KeysetCursor cursor = Objects.requireNonNullElse(after, KeysetCursor.FIRST);
+        int queryPageSize = resolvePageSize(pageSize);
+        String namePattern = CustomerRepository.prefixPattern(Objects.requireNonNullElse(name, ""));
+        List<CustomerDTO> customers = customerRepository.findByNameLikeAfter(namePattern, cursor.name(), cursor.id(),
+                        PageRequest.ofSize(queryPageSize + 1)).stream()
+                .map(customerMapper::customerToCustomerDto)
+                .toList();
+        List<CustomerDTO> content = customers.size() > queryPageSize
+                ? customers.subList(0, queryPageSize)
+                : customers;
+        String next = null;
+
+        if (customers.size() > queryPageSize) {
+            CustomerDTO last = content.getLast();
+            next = new KeysetCursor(last.getName(), last.getId()).encode();
+        }
+
+        return KeysetPage.<CustomerDTO>builder()
+                .content(content)
+                .next(next)
+                .build();
+    }
+
+    private List<CustomerDTO> findCustomersAfter(UUID after, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit);
+        List<Customer> customers = after == null
+                ? customerRepository.findAllByOrderByIdAsc(pageable)
+                : customerRepository.findCustomersAfter(after, pageable);
+
+        return customers.stream().map(customerMapper::customerToCustomerDto).toList();
+    }
+
+    private static int resolvePageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
     @Override
     public CustomerDTO saveNewCustomer(CustomerDTO customer) {
         return customerMapper.customerToCustomerDto(customerRepository
@@ -46,6 +151,7 @@ public class CustomerServiceJPA implements CustomerService {
 
         customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
             foundCustomer.setName(customer.getName());
+            foundCustomer.setEmail(customer.getEmail());
             atomicReference.set(Optional.of(customerMapper
                     .customerToCustomerDto(customerRepository.save(foundCustomer))));
         }, () -> {
@@ -72,6 +178,9 @@ public class CustomerServiceJPA implements CustomerService {
             if (StringUtils.hasText(customer.getName())) {
                 foundCustomer.setName(customer.getName());
             }
+            if (StringUtils.hasText(customer.getEmail())) {
+                foundCustomer.setEmail(customer.getEmail());
+            }
             atomicReference.set(Optional.of(customerMapper
                     .customerToCustomerDto(customerRepository.save(foundCustomer))));
         }, () -> {
@@ -0,0 +1,93 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.CustomerDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Storage behind {@link CustomerServiceImpl}. Implementations hand out copies, so callers may mutate what they
+ * get back.
+ */
+interface CustomerStore extends AutoCloseable {
+
+    Optional<CustomerDTO> get(UUID id);
+
+    void put(CustomerDTO customer);
+
+    /**
+     * Atomically replaces the customer with what {@code update} returns, if the customer exists.
+     */
+    Optional<CustomerDTO> update(UUID id, UnaryOperator<CustomerDTO> update);
+
+    boolean remove(UUID id);
+
+    List<CustomerDTO> values();
+
+    int size();
+
+    @Override
+    void close();
+
+    static CustomerStore onHeap() {
+        return new HeapCustomerStore();
+    }
+
+    final class HeapCustomerStore implements CustomerStore {
+        private final Map<UUID, CustomerDTO> customers = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<CustomerDTO> get(UUID id) {
+            return Optional.ofNullable(customers.get(id)).map(HeapCustomerStore::copy);
+        }
+
+        @Override
+        public void put(CustomerDTO customer) {
+            customers.put(customer.getId(), copy(customer));
+        }
+
+        @Override
+        public Optional<CustomerDTO> update(UUID id, UnaryOperator<CustomerDTO> update) {
+            return Optional.ofNullable(customers.computeIfPresent(id, (key, existing) -> update.apply(copy(existing))))
+                    .map(HeapCustomerStore::copy);
+        }
+
+        @Override
+        public boolean remove(UUID id) {
+            return customers.remove(id) != null;
+        }
+
+        @Override
+        public List<CustomerDTO> values() {
+            List<CustomerDTO> values = new ArrayList<>(customers.size());
+            customers.values().forEach(customer -> values.add(copy(customer)));
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return customers.size();
+        }
+
+        @Override
+        public void close() {
+            customers.clear();
+        }
+
+        private static CustomerDTO copy(CustomerDTO customer) {
+            return CustomerDTO.builder()
+                    .id(customer.getId())
+                    .name(customer.getName())
+                    .email(customer.getEmail())
+                    .version(customer.getVersion())
+                    .createdDate(customer.getCreatedDate())
+                    .updateDate(customer.getUpdateDate())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.moh4lych.springdi.services;
+
+/**
+ * Thrown while iterating a CSV stream when a record cannot be decoded. The whole record has been consumed
+ * when this is thrown, so iteration can carry on with the next one.
+ */
+public class MalformedCSVRecordException extends RuntimeException {
+
+    public MalformedCSVRecordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,398 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.CustomerDTO;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Customer store that keeps nothing per customer on the heap. Customers are fixed-size 128 byte records in
+ * off-heap chunks, found through an off-heap open-addressing table from id to record slot, and decoded to a
+ * {@link CustomerDTO} only when read. Name and email share 76 inline bytes; whichever does not fit is kept on
+ * the heap. Reads share a read lock, writes take the write lock.
+ */
+final class OffHeapCustomerStore implements CustomerStore {
+    private static final int RECORDS_PER_CHUNK = 1 << 16;
+    private static final long RECORD_SIZE = 128;
+    private static final long ID_MSB = 0;
+    private static final long ID_LSB = 8;
+    private static final long VERSION = 16;
+    private static final long NAME_LENGTH = 20;
+    private static final long CREATED_SECONDS = 24;
+    private static final long CREATED_NANOS = 32;
+    private static final long UPDATED_NANOS = 36;
+    private static final long UPDATED_SECONDS = 40;
+    private static final long EMAIL_LENGTH = 48;
+    private static final long TEXT = 52;
+    private static final int TEXT_CAPACITY = (int) (RECORD_SIZE - TEXT);
+    private static final int NULL_TEXT = -1;
+    private static final int LONG_TEXT = -2;
+    private static final int NULL_VERSION = Integer.MIN_VALUE;
+    private static final int NULL_DATE = -1;
+
+    private static final long INDEX_ENTRY_SIZE = 24;
+    private static final int MIN_INDEX_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Arena recordArena = Arena.ofShared();
+    private final List<MemorySegment> chunks = new ArrayList<>();
+    private final Map<Integer, String> longNames = new HashMap<>();
+    private final Map<Integer, String> longEmails = new HashMap<>();
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int nextSlot;
+
+    private Arena indexArena;
+    private MemorySegment index;
+    private int indexMask;
+    private int size;
+
+    OffHeapCustomerStore() {
+        allocateIndex(MIN_INDEX_CAPACITY);
+    }
+
+    @Override
+    public Optional<CustomerDTO> get(UUID id) {
+        lock.readLock().lock();
+        try {
+            int position = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return position < 0 ? Optional.empty() : Optional.of(decode(slotAt(position)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CustomerDTO customer) {
+        long msb = customer.getId().getMostSignificantBits();
+        long lsb = customer.getId().getLeastSignificantBits();
+
+        lock.writeLock().lock();
+        try {
+            int position = find(msb, lsb);
+
+            if (position >= 0) {
+                encode(slotAt(position), customer);
+                return;
+            }
+
+            int slot = allocateSlot();
+            encode(slot, customer);
+            insert(msb, lsb, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<CustomerDTO> update(UUID id, UnaryOperator<CustomerDTO> update) {
+        lock.writeLock().lock();
+        try {
+            int position = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+
+            if (position < 0) {
+                return Optional.empty();
+            }
+
+            int slot = slotAt(position);
+            CustomerDTO updated = update.apply(decode(slot));
+            encode(slot, updated);
+            return Optional.of(decode(slot));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            int position = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+
+            if (position < 0) {
+                return false;
+            }
+
+            int slot = slotAt(position);
+            longNames.remove(slot);
+            longEmails.remove(slot);
+            delete(position);
+            releaseSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CustomerDTO> values() {
+        lock.readLock().lock();
+        try {
+            List<CustomerDTO> values = new ArrayList<>(size);
+
+            for (int position = 0; position <= indexMask; position++) {
+                if (index.getAtIndex(ValueLayout.JAVA_LONG, position * 3L + 2) != 0) {
+                    values.add(decode(slotAt(position)));
+                }
+            }
+
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            indexArena.close();
+            recordArena.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void encode(int slot, CustomerDTO customer) {
+        MemorySegment chunk = chunk(slot);
+        long base = recordOffset(slot);
+
+        chunk.set(ValueLayout.JAVA_LONG, base + ID_MSB, customer.getId().getMostSignificantBits());
+        chunk.set(ValueLayout.JAVA_LONG, base + ID_LSB, customer.getId().getLeastSignificantBits());
+        chunk.set(ValueLayout.JAVA_INT, base + VERSION,
+                customer.getVersion() != null ? customer.getVersion() : NULL_VERSION);
+        encodeDate(chunk, base + CREATED_SECONDS, base + CREATED_NANOS, customer.getCreatedDate());
+        encodeDate(chunk, base + UPDATED_SECONDS, base + UPDATED_NANOS, customer.getUpdateDate());
+
+        int nameLength = encodeText(slot, chunk, base + NAME_LENGTH, base + TEXT, TEXT_CAPACITY,
+                customer.getName(), longNames);
+        encodeText(slot, chunk, base + EMAIL_LENGTH, base + TEXT + nameLength, TEXT_CAPACITY - nameLength,
+                customer.getEmail(), longEmails);
+    }
+
+    private CustomerDTO decode(int slot) {
+        MemorySegment chunk = chunk(slot);
+        long base = recordOffset(slot);
+        int version = chunk.get(ValueLayout.JAVA_INT, base + VERSION);
+        int nameLength = chunk.get(ValueLayout.JAVA_INT, base + NAME_LENGTH);
+
+        return CustomerDTO.builder()
+                .id(new UUID(chunk.get(ValueLayout.JAVA_LONG, base + ID_MSB),
+                        chunk.get(ValueLayout.JAVA_LONG, base + ID_LSB)))
+                .name(decodeText(slot, chunk, base + NAME_LENGTH, base + TEXT, longNames))
+                .email(decodeText(slot, chunk, base + EMAIL_LENGTH, base + TEXT + Math.max(nameLength, 0),
+                        longEmails))
+                .version(version != NULL_VERSION ? version : null)
+                .createdDate(decodeDate(chunk, base + CREATED_SECONDS, base + CREATED_NANOS))
+                .updateDate(decodeDate(chunk, base + UPDATED_SECONDS, base + UPDATED_NANOS))
+                .build();
+    }
+
+    /**
+     * Writes {@code value} inline if it fits in {@code capacity} bytes, otherwise into {@code overflow}, and
+     * returns the inline bytes used.
+     */
+    private static int encodeText(int slot, MemorySegment chunk, long lengthOffset, long textOffset, int capacity,
+                                  String value, Map<Integer, String> overflow) {
+        overflow.remove(slot);
+        if (value == null) {
+            chunk.set(ValueLayout.JAVA_INT, lengthOffset, NULL_TEXT);
+            return 0;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > capacity) {
+            chunk.set(ValueLayout.JAVA_INT, lengthOffset, LONG_TEXT);
+            overflow.put(slot, value);
+            return 0;
+        }
+
+        chunk.set(ValueLayout.JAVA_INT, lengthOffset, bytes.length);
+        MemorySegment.copy(bytes, 0, chunk, ValueLayout.JAVA_BYTE, textOffset, bytes.length);
+        return bytes.length;
+    }
+
+    private static String decodeText(int slot, MemorySegment chunk, long lengthOffset, long textOffset,
+                                     Map<Integer, String> overflow) {
+        int length = chunk.get(ValueLayout.JAVA_INT, lengthOffset);
+
+        if (length == LONG_TEXT) {
+            return overflow.get(slot);
+        } else if (length == NULL_TEXT) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(chunk, ValueLayout.JAVA_BYTE, textOffset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void encodeDate(MemorySegment chunk, long secondsOffset, long nanosOffset, LocalDateTime date) {
+        chunk.set(ValueLayout.JAVA_LONG, secondsOffset, date != null ? date.toEpochSecond(ZoneOffset.UTC) : 0);
+        chunk.set(ValueLayout.JAVA_INT, nanosOffset, date != null ? date.getNano() : NULL_DATE);
+    }
+
+    private static LocalDateTime decodeDate(MemorySegment chunk, long secondsOffset, long nanosOffset) {
+        int nanos = chunk.get(ValueLayout.JAVA_INT, nanosOffset);
+
+        if (nanos == NULL_DATE) {
+            return null;
+        }
+
+        return LocalDateTime.ofEpochSecond(chunk.get(ValueLayout.JAVA_LONG, secondsOffset), nanos, ZoneOffset.UTC);
+    }
+
+    private MemorySegment chunk(int slot) {
+        return chunks.get(slot / RECORDS_PER_CHUNK);
+    }
+
+    private static long recordOffset(int slot) {
+        return (slot % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+
+        if (nextSlot == chunks.size() * RECORDS_PER_CHUNK) {
+            chunks.add(recordArena.allocate(RECORDS_PER_CHUNK * RECORD_SIZE, Long.BYTES));
+        }
+
+        return nextSlot++;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+
+        freeSlots[freeCount++] = slot;
+    }
+
+    /*
+     * The index is a linear-probing table of (id msb, id lsb, slot + 1) longs; a zero slot word marks an empty
+     * entry. Deletes shift the following run back instead of leaving tombstones.
+     */
+
+    private int find(long msb, long lsb) {
+        int position = hash(msb, lsb) & indexMask;
+
+        while (true) {
+            long entry = position * 3L;
+
+            if (index.getAtIndex(ValueLayout.JAVA_LONG, entry + 2) == 0) {
+                return -1;
+            }
+            if (index.getAtIndex(ValueLayout.JAVA_LONG, entry) == msb
+                    && index.getAtIndex(ValueLayout.JAVA_LONG, entry + 1) == lsb) {
+                return position;
+            }
+
+            position = (position + 1) & indexMask;
+        }
+    }
+
+    private int slotAt(int position) {
+        return (int) (index.getAtIndex(ValueLayout.JAVA_LONG, position * 3L + 2) - 1);
+    }
+
+    private void insert(long msb, long lsb, int slot) {
+        if ((size + 1) * 4L > (indexMask + 1L) * 3) {
+            resizeIndex();
+        }
+
+        put(index, indexMask, msb, lsb, slot + 1L);
+        size++;
+    }
+
+    private static void put(MemorySegment table, int mask, long msb, long lsb, long slotWord) {
+        int position = hash(msb, lsb) & mask;
+
+        while (table.getAtIndex(ValueLayout.JAVA_LONG, position * 3L + 2) != 0) {
+            position = (position + 1) & mask;
+        }
+
+        table.setAtIndex(ValueLayout.JAVA_LONG, position * 3L, msb);
+        table.setAtIndex(ValueLayout.JAVA_LONG, position * 3L + 1, lsb);
+        table.setAtIndex(ValueLayout.JAVA_LONG, position * 3L + 2, slotWord);
+    }
+
+    private void delete(int position) {
+        int gap = position;
+        int next = (position + 1) & indexMask;
+
+        while (index.getAtIndex(ValueLayout.JAVA_LONG, next * 3L + 2) != 0) {
+            long msb = index.getAtIndex(ValueLayout.JAVA_LONG, next * 3L);
+            long lsb = index.getAtIndex(ValueLayout.JAVA_LONG, next * 3L + 1);
+            int home = hash(msb, lsb) & indexMask;
+
+            if (((next - home) & indexMask) >= ((next - gap) & indexMask)) {
+                MemorySegment.copy(index, next * INDEX_ENTRY_SIZE, index, gap * INDEX_ENTRY_SIZE, INDEX_ENTRY_SIZE);
+                gap = next;
+            }
+
+            next = (next + 1) & indexMask;
+        }
+
+        index.setAtIndex(ValueLayout.JAVA_LONG, gap * 3L + 2, 0);
+        size--;
+    }
+
+    private void resizeIndex() {
+        Arena oldArena = indexArena;
+        MemorySegment oldIndex = index;
+        int oldMask = indexMask;
+
+        allocateIndex((oldMask + 1) * 2);
+
+        for (int position = 0; position <= oldMask; position++) {
+            long slotWord = oldIndex.getAtIndex(ValueLayout.JAVA_LONG, position * 3L + 2);
+
+            if (slotWord != 0) {
+                put(index, indexMask, oldIndex.getAtIndex(ValueLayout.JAVA_LONG, position * 3L),
+                        oldIndex.getAtIndex(ValueLayout.JAVA_LONG, position * 3L + 1), slotWord);
+            }
+        }
+
+        oldArena.close();
+    }
+
+    private void allocateIndex(int capacity) {
+        indexArena = Arena.ofShared();
+        index = indexArena.allocate(capacity * INDEX_ENTRY_SIZE, Long.BYTES);
+        indexMask = capacity - 1;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
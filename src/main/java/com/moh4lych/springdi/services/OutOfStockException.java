@@ -0,0 +1,15 @@
+package com.moh4lych.springdi.services;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+public class OutOfStockException extends RuntimeException {
+    private final UUID beerId;
+
+    public OutOfStockException(UUID beerId) {
+        super("Not enough stock for beer " + beerId);
+        this.beerId = beerId;
+    }
+}
@@ -0,0 +1,4 @@
+alter table beer
+    add column content_hash varchar(64);
+
+create index beer_upc_idx on beer (upc);
@@ -0,0 +1,3 @@
+create unique index customer_email_uidx on customer (email);
+
+create index customer_name_id_idx on customer (name, id);
@@ -0,0 +1,6 @@
+-- Style filters, with or without a name filter, seek on beer_style and read rows already in (beer_name, id)
+-- order, which is the order the keyset queries page in.
+create index beer_style_name_id_idx on beer (beer_style, beer_name, id);
+
+-- Unfiltered keyset pages walk this index instead of sorting the table.
+create index beer_name_id_idx on beer (beer_name, id);
@@ -0,0 +1,29 @@
+package com.moh4lych.springdi.benchmark;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Common reporting for {@link Benchmark} methods, so every result lands in the {@code benchmark} logger.
+ */
+public final class BenchmarkLog {
+    private static final Logger log = LoggerFactory.getLogger("benchmark");
+
+    private BenchmarkLog() {
+    }
+
+    public static void report(String format, Object... arguments) {
+        log.info(format, arguments);
+    }
+
+    public static long elapsedMillis(long startNanos) {
+        return Math.max((System.nanoTime() - startNanos) / 1_000_000, 1);
+    }
+
+    /**
+     * Takes {@code elapsedMillis} from {@link #elapsedMillis(long)}, which is never zero.
+     */
+    public static long perSecond(long count, long elapsedMillis) {
+        return count * 1000 / elapsedMillis;
+    }
+}
@@ -1,19 +1,41 @@
 package com.moh4lych.springdi.bootstrap;
 
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapper;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapperImpl;
 import com.moh4lych.springdi.repositories.BeerRepository;
 import com.moh4lych.springdi.repositories.CustomerRepository;
+import com.moh4lych.springdi.services.BeerBatchWriter;
+import com.moh4lych.springdi.services.BeerCSVParallelImporter;
 import com.moh4lych.springdi.services.BeerCSVService;
+import com.moh4lych.springdi.services.BeerCSVServiceFastImpl;
 import com.moh4lych.springdi.services.BeerCSVServiceImpl;
+import com.moh4lych.springdi.services.BeerCatalogGeneration;
+import com.moh4lych.springdi.services.BeerNameIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @DataJpaTest
-@Import(BeerCSVServiceImpl.class)
+@Import({BeerCSVServiceImpl.class, BeerCSVRecordMapperImpl.class, BeerBatchWriter.class})
 class BootstrapDataTest {
 
     @Autowired
@@ -22,18 +44,58 @@ class BootstrapDataTest {
     BeerCSVService beerCSVService;
     @Autowired
     CustomerRepository customerRepository;
+    @Autowired
+    BeerCSVRecordMapper beerCSVRecordMapper;
+    @Autowired
+    BeerBatchWriter beerBatchWriter;
+
+    BeerCSVParallelImporter beerCSVParallelImporter = mock(BeerCSVParallelImporter.class);
 
     BootstrapData bootstrapData;
 
     @BeforeEach
     void setUp() {
-        bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCSVService);
+        bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCSVService, beerCSVRecordMapper,
+                beerBatchWriter, beerCSVParallelImporter);
     }
 
     @Test
     void testData() throws Exception {
-        bootstrapData.run(null);
+        bootstrapData.run();
 
         assertTrue(beerRepository.count() > 10);
+        verify(beerCSVParallelImporter, never()).importCSV(any(File.class));
+    }
+
+    @Test
+    void testLargeCSVUsesParallelImporter() throws Exception {
+        ReflectionTestUtils.setField(bootstrapData, "parallelImportThreshold", DataSize.ofBytes(0));
+
+        bootstrapData.run();
+
+        ArgumentCaptor<File> csv = ArgumentCaptor.forClass(File.class);
+        verify(beerCSVParallelImporter).importCSV(csv.capture());
+        long bootstrapBeers = beerRepository.count();
+
+        ReflectionTestUtils.setField(bootstrapData, "parallelImportThreshold", DataSize.ofGigabytes(1));
+        bootstrapData.run();
+        long sequentialRows = beerRepository.count() - bootstrapBeers;
+
+        assertTrue(sequentialRows > 0);
+        assertEquals(sequentialRows, parallelImporter().importCSV(csv.getValue()));
+        verify(beerCSVParallelImporter).importCSV(any(File.class));
+    }
+
+    /**
+     * A real parallel importer whose writer only hands the rows back, so nothing commits outside the test
+     * transaction.
+     */
+    private BeerCSVParallelImporter parallelImporter() {
+        BeerBatchWriter writer = mock(BeerBatchWriter.class);
+        when(writer.persistAll(ArgumentMatchers.<Collection<Beer>>any()))
+                .thenAnswer(invocation -> new ArrayList<Beer>(invocation.getArgument(0)));
+
+        return new BeerCSVParallelImporter(new BeerCSVServiceFastImpl(), beerCSVRecordMapper, writer,
+                new BeerCatalogGeneration(), mock(BeerNameIndex.class), 4, DataSize.ofKilobytes(16));
     }
 }
\ No newline at end of file
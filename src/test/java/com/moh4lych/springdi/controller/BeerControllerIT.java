@@ -3,9 +3,13 @@ package com.moh4lych.springdi.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moh4lych.springdi.entities.Beer;
 import com.moh4lych.springdi.events.BeerCreatedEvent;
+import com.moh4lych.springdi.model.BeerBatchResult;
 import com.moh4lych.springdi.model.BeerDTO;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.repositories.BeerRepository;
+import com.moh4lych.springdi.services.BeerService;
 import jakarta.transaction.Transactional;
 import lombok.val;
 import org.junit.jupiter.api.Assertions;
@@ -14,23 +18,36 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.event.ApplicationEvents;
 import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -99,9 +116,140 @@ class BeerControllerIT {
                 .andExpect(jsonPath("$.content.length()", is(25)));
     }
 
+    @Test
+    void testListBeersSlice() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/slice")
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("pageNumber", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(25)))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void testListBeersAfterCursor() {
+        KeysetPage<BeerDTO> firstPage = beerController.listBeersAfter(null, BeerStyle.IPA, null, 50, true);
+        KeysetPage<BeerDTO> secondPage = beerController.listBeersAfter(null, BeerStyle.IPA,
+                KeysetCursor.valueOf(firstPage.getNext()), 50, false);
+
+        assertThat(firstPage.getContent().size()).isEqualTo(50);
+        assertThat(firstPage.getTotalElements()).isGreaterThan(100);
+        assertThat(secondPage.getContent().size()).isEqualTo(50);
+        assertThat(secondPage.getTotalElements()).isNull();
+        assertThat(secondPage.getContent()).doesNotContainAnyElementsOf(firstPage.getContent());
+        assertThat(secondPage.getContent().getFirst().getBeerName())
+                .isGreaterThanOrEqualTo(firstPage.getContent().getLast().getBeerName());
+    }
+
+    @Test
+    void testListBeersAfterFirstPage() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("beerName", "IPA")
+                        .queryParam("after", ""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(25)))
+                .andExpect(jsonPath("$.next").isNotEmpty());
+    }
+
+    @Test
+    void testListBeersAfterClampsPageSize() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("after", "")
+                        .queryParam("pageSize", "0"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(25)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("after", "")
+                        .queryParam("pageSize", "-5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(25)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("after", "")
+                        .queryParam("pageSize", "100000"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(BeerService.MAX_PAGE_SIZE)));
+    }
+
+    @Test
+    void testListBeersAfterMalformedCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("after", "not-a-cursor"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void testExportBeers() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize((int) beerRepository.count());
+        assertThat(objectMapper.readValue(lines.getFirst(), BeerDTO.class).getId()).isNotNull();
+    }
+
+    @Test
+    void testExportBeersCsvGzip() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/export.csv")
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        String body;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            body = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines.getFirst()).startsWith("id,version,beerName,beerStyle");
+        assertThat(lines).hasSize((int) beerRepository.countByBeerStyle(BeerStyle.IPA) + 1);
+        assertThat(lines.subList(1, lines.size())).allMatch(line -> line.contains("," + BeerStyle.IPA + ","));
+    }
+
+    @Test
+    void testListBeersNotModified() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("beerStyle", BeerStyle.IPA.name()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    void testPatchBeerIfMatchMismatch() throws Exception {
+        Beer beer = beerRepository.findAll().getFirst();
+        Map<String, Object> data = new HashMap<>();
+        data.put("quantityOnHand", 1);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/beer/" + beer.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (beer.getVersion() + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(data)))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
     @Test
     void testListBeers() {
-        Page<BeerDTO> list = beerController.listBeers(null, null, 1, 25);
+        Page<BeerDTO> list = beerController.listBeers(null, null, 1, 25, webRequest());
 
         Assertions.assertEquals(25, list.getContent().size());
     }
@@ -111,7 +259,7 @@ class BeerControllerIT {
     @Test
     void testEmptyListBeers() {
         beerRepository.deleteAll();
-        Page<BeerDTO> list = beerController.listBeers(null, null, 1, 25);
+        Page<BeerDTO> list = beerController.listBeers(null, null, 1, 25, webRequest());
 
         assertThat(list.getContent().size()).isEqualTo(0);
     }
@@ -119,7 +267,7 @@ class BeerControllerIT {
     @Test
     void testGetBeerById() {
         Beer beer = beerRepository.findAll().getFirst();
-        BeerDTO beerDTO = beerController.getBeerById(beer.getId());
+        BeerDTO beerDTO = beerController.getBeerById(beer.getId(), webRequest());
 
         assertThat(beerDTO).isNotNull();
     }
@@ -127,7 +275,7 @@ class BeerControllerIT {
     @Test
     void testGetBeerByIdWithError() {
         assertThrows(NotFoundException.class, () -> {
-            beerController.getBeerById(UUID.randomUUID());
+            beerController.getBeerById(UUID.randomUUID(), webRequest());
         });
     }
 
@@ -152,14 +300,71 @@ class BeerControllerIT {
         Assertions.assertEquals(1, count);
     }
 
+    @Rollback
+    @Transactional
+    @Test
+    void testSaveNewBeersBatch() {
+        long countBefore = beerRepository.count();
+        List<BeerDTO> beerDTOs = List.of(
+                BeerDTO.builder().beerName("Batch 1").beerStyle(BeerStyle.ALE).upc("1")
+                        .price(new BigDecimal("1.99")).build(),
+                BeerDTO.builder().beerName("").beerStyle(BeerStyle.ALE).upc("2").build(),
+                BeerDTO.builder().beerName("Batch 3").beerStyle(BeerStyle.IPA).upc("3")
+                        .price(new BigDecimal("2.99")).build());
+
+        ResponseEntity<BeerBatchResult> response = beerController.handleBatchPost(beerDTOs);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.MULTI_STATUS);
+        assertThat(response.getBody().getCreatedIds()).hasSize(2);
+        assertThat(response.getBody().getErrors()).hasSize(1);
+        assertThat(response.getBody().getErrors().getFirst().getIndex()).isEqualTo(1);
+        assertThat(response.getBody().getErrors().getFirst().getErrors()).containsKeys("beerName", "price");
+        assertThat(beerRepository.count()).isEqualTo(countBefore + 2);
+        assertThat(beerRepository.findById(response.getBody().getCreatedIds().getFirst())).isPresent();
+        assertThat(applicationEvents.stream(BeerCreatedEvent.class).count()).isEqualTo(2);
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testSaveNewBeersBatchRejectsClientIds() {
+        long countBefore = beerRepository.count();
+        List<BeerDTO> beerDTOs = List.of(
+                BeerDTO.builder().id(UUID.randomUUID()).beerName("Batch 1").beerStyle(BeerStyle.ALE).upc("1")
+                        .price(new BigDecimal("1.99")).build(),
+                BeerDTO.builder().beerName("Batch 2").beerStyle(BeerStyle.IPA).upc("2")
+                        .price(new BigDecimal("2.99")).build());
+
+        ResponseEntity<BeerBatchResult> response = beerController.handleBatchPost(beerDTOs);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.MULTI_STATUS);
+        assertThat(response.getBody().getCreatedIds()).hasSize(1);
+        assertThat(response.getBody().getErrors()).hasSize(1);
+        assertThat(response.getBody().getErrors().getFirst().getIndex()).isEqualTo(0);
+        assertThat(response.getBody().getErrors().getFirst().getErrors()).containsOnlyKeys("id");
+        assertThat(beerRepository.count()).isEqualTo(countBefore + 1);
+    }
+
+    @Test
+    void testSaveNewBeersBatchTooLarge() {
+        BeerDTO beerDTO = BeerDTO.builder().beerName("Batch").beerStyle(BeerStyle.ALE).upc("1")
+                .price(new BigDecimal("1.99")).build();
+        List<BeerDTO> beerDTOs = Collections.nCopies(BeerController.MAX_BATCH_SIZE + 1, beerDTO);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> beerController.handleBatchPost(beerDTOs));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @Rollback
     @Transactional
     @Test
     void testUpdateBeer() {
         BeerDTO beerDTO = BeerDTO.builder().beerName("Test").upc("112233").build();
-        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25).getContent().getFirst();
+        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25, webRequest()).getContent().getFirst();
 
-        ResponseEntity response = beerController.updateById(beerDTOToChange.getId(), beerDTO);
+        ResponseEntity response = beerController.updateById(beerDTOToChange.getId(), null, beerDTO);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 
@@ -172,7 +377,7 @@ class BeerControllerIT {
     @Test
     void testUpdateBeerNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            beerController.updateById(UUID.randomUUID(), BeerDTO.builder().build());
+            beerController.updateById(UUID.randomUUID(), null, BeerDTO.builder().build());
         });
     }
 
@@ -180,7 +385,7 @@ class BeerControllerIT {
     @Transactional
     @Test
     void testDeleteBeer() {
-        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25).getContent().getFirst();
+        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25, webRequest()).getContent().getFirst();
 
         ResponseEntity response = beerController.deleteById(beerDTOToChange.getId());
 
@@ -199,9 +404,10 @@ class BeerControllerIT {
     @Transactional
     @Test
     void testPatchBeer() {
-        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25).getContent().getFirst();
+        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25, webRequest()).getContent().getFirst();
 
-        ResponseEntity response = beerController.patchById(beerDTOToChange.getId(), BeerDTO.builder().beerName("Test").build());
+        ResponseEntity response = beerController.patchById(beerDTOToChange.getId(), null,
+                BeerDTO.builder().beerName("Test").build());
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
         Optional<Beer> beerChanged = beerRepository.findById(beerDTOToChange.getId());
@@ -210,10 +416,36 @@ class BeerControllerIT {
         assertEquals("Beer name", "Test", beerChanged.get().getBeerName());
     }
 
+    @Rollback
+    @Transactional
+    @Test
+    void testPatchBeerWithoutIfMatchSendsETag() {
+        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25, webRequest()).getContent().getFirst();
+
+        ResponseEntity response = beerController.patchById(beerDTOToChange.getId(), null,
+                BeerDTO.builder().quantityOnHand(3).build());
+
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + (beerDTOToChange.getVersion() + 1) + "\"");
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testPatchBeerEmptyBodyKeepsVersion() {
+        BeerDTO beerDTOToChange = beerController.listBeers(null, null, 1, 25, webRequest()).getContent().getFirst();
+
+        ResponseEntity response = beerController.patchById(beerDTOToChange.getId(), null, BeerDTO.builder().build());
+
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + beerDTOToChange.getVersion() + "\"");
+        Beer beer = beerRepository.findById(beerDTOToChange.getId()).get();
+        assertThat(beer.getVersion()).isEqualTo(beerDTOToChange.getVersion());
+        assertThat(beer.getUpdateDate()).isEqualTo(beerDTOToChange.getUpdateDate());
+    }
+
     @Test
     void testPatchBeerNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            beerController.patchById(UUID.randomUUID(), BeerDTO.builder().build());
+            beerController.patchById(UUID.randomUUID(), null, BeerDTO.builder().build());
         });
     }
 
@@ -229,4 +461,8 @@ class BeerControllerIT {
                         .content(objectMapper.writeValueAsString(data)))
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    private static WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+}
@@ -12,7 +12,10 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -20,6 +23,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,7 +31,10 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -78,6 +85,45 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.beerName", is(testBeer.getBeerName())));
     }
 
+    @Test
+    void testGetBeerByIdNotModified() throws Exception {
+        given(beerService.getBeerById(any(UUID.class))).willReturn(Optional.of(testBeer));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/" + testBeer.getId())
+                        .with(httpBasic("test", "test"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    void testListBeersNotModified() throws Exception {
+        given(beerService.getCatalogVersion()).willReturn("abc-7");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/beer/")
+                        .with(httpBasic("test", "test"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc-7\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        verify(beerService, never()).listBeers(any(), any(), any(), any());
+    }
+
+    @Test
+    void testPutBeerIfMatchMismatch() throws Exception {
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class), eq(3)))
+                .willThrow(new ObjectOptimisticLockingFailureException(BeerDTO.class, testBeer.getId()));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/beer/" + testBeer.getId())
+                        .with(httpBasic("test", "test"))
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testBeer)))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    }
+
     @Test
     void testCreateBeer() throws Exception {
         given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(testBeer);
@@ -92,9 +138,30 @@ class BeerControllerTest {
                 .andExpect(header().string("Location", "/api/v1/beer/" + testBeer.getId().toString()));
     }
 
+    @Test
+    void testBatchPostReportsPersistenceFailuresPerBeer() throws Exception {
+        BeerDTO first = BeerDTO.builder().beerName("First").beerStyle(BeerStyle.ALE).upc("1")
+                .price(new BigDecimal("1.99")).build();
+        BeerDTO second = BeerDTO.builder().beerName("Second").beerStyle(BeerStyle.IPA).upc("2")
+                .price(new BigDecimal("2.99")).build();
+        given(beerService.saveNewBeers(anyList())).willThrow(new DataIntegrityViolationException("duplicate"));
+        given(beerService.saveNewBeer(any(BeerDTO.class))).willReturn(testBeer)
+                .willThrow(new DataIntegrityViolationException("duplicate"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/beer/batch")
+                        .with(httpBasic("test", "test"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, second))))
+                .andExpect(MockMvcResultMatchers.status().isMultiStatus())
+                .andExpect(jsonPath("$.createdIds.length()", is(1)))
+                .andExpect(jsonPath("$.errors.length()", is(1)))
+                .andExpect(jsonPath("$.errors[0].index", is(1)));
+    }
+
     @Test
     void testPutBeer() throws Exception {
-        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class))).willReturn(Optional.of(testBeer));
+        given(beerService.updateBeerById(any(UUID.class), any(BeerDTO.class), any())).willReturn(Optional.of(testBeer));
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/beer/" + UUID.randomUUID())
                         .with(httpBasic("test", "test"))
@@ -103,7 +170,7 @@ class BeerControllerTest {
                         .content(objectMapper.writeValueAsString(testBeer)))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
-        verify(beerService).updateBeerById(any(UUID.class), any(BeerDTO.class));
+        verify(beerService).updateBeerById(any(UUID.class), any(BeerDTO.class), any());
     }
 
     @Test
@@ -125,7 +192,7 @@ class BeerControllerTest {
         Map<String, Object> data = new HashMap<>();
         data.put("beerName", "Test");
 
-        given(beerService.patchBeerById(any(UUID.class), any(BeerDTO.class))).willReturn(Optional.of(testBeer));
+        given(beerService.patchBeerById(any(UUID.class), any(BeerDTO.class), any())).willReturn(Optional.of(testBeer));
 
         mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/beer/" + testBeer.getId())
                         .with(httpBasic("test", "test"))
@@ -134,7 +201,7 @@ class BeerControllerTest {
                         .content(objectMapper.writeValueAsString(data)))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
-        verify(beerService).patchBeerById(uuidCaptor.capture(), beerCaptor.capture());
+        verify(beerService).patchBeerById(uuidCaptor.capture(), beerCaptor.capture(), any());
 
         assertThat(testBeer.getId()).isEqualTo(uuidCaptor.getValue());
         assertThat(data.get("beerName")).isEqualTo(beerCaptor.getValue().getBeerName());
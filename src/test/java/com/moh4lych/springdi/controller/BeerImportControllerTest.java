@@ -0,0 +1,74 @@
+package com.moh4lych.springdi.controller;
+
+import com.moh4lych.springdi.config.SpringSecurityConfig;
+import com.moh4lych.springdi.model.BeerImportJobDTO;
+import com.moh4lych.springdi.model.BeerImportStatus;
+import com.moh4lych.springdi.services.BeerImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BeerImportController.class)
+@Import(SpringSecurityConfig.class)
+class BeerImportControllerTest {
+
+    @MockitoBean
+    BeerImportService beerImportService;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    BeerImportJobDTO job = BeerImportJobDTO.builder()
+            .id(UUID.randomUUID())
+            .fileName("beer.csv")
+            .status(BeerImportStatus.RUNNING)
+            .rowsParsed(100)
+            .build();
+
+    @Test
+    void testStartImport() throws Exception {
+        given(beerImportService.startImport(any(), anyBoolean())).willReturn(job);
+
+        mockMvc.perform(multipart(BeerImportController.BEER_IMPORT_PATH)
+                        .file(new MockMultipartFile("file", "beer.csv", "text/csv", "row,beer\n".getBytes()))
+                        .with(httpBasic("test", "test")))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/beer/import/" + job.getId()))
+                .andExpect(jsonPath("$.status", is("RUNNING")));
+    }
+
+    @Test
+    void testGetImportJob() throws Exception {
+        given(beerImportService.getImportJob(job.getId())).willReturn(Optional.of(job));
+
+        mockMvc.perform(get(BeerImportController.BEER_IMPORT_PATH + "/" + job.getId())
+                        .with(httpBasic("test", "test")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsParsed", is(100)));
+    }
+
+    @Test
+    void testGetImportJobNotFound() throws Exception {
+        given(beerImportService.getImportJob(any())).willReturn(Optional.empty());
+
+        mockMvc.perform(get(BeerImportController.BEER_IMPORT_PATH + "/" + UUID.randomUUID())
+                        .with(httpBasic("test", "test")))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,228 @@
+package com.moh4lych.springdi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.entities.BeerOrder;
+import com.moh4lych.springdi.model.BeerOrderCreateDTO;
+import com.moh4lych.springdi.model.BeerOrderLineCreateDTO;
+import com.moh4lych.springdi.repositories.BeerOrderRepository;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import com.moh4lych.springdi.repositories.CustomerRepository;
+import com.moh4lych.springdi.services.OutOfStockException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@SpringBootTest
+class BeerOrderControllerIT {
+    @Autowired
+    BeerOrderController beerOrderController;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    WebApplicationContext wac;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MockMvc mockMvc;
+    UUID customerId;
+    Beer firstBeer;
+    Beer secondBeer;
+    Set<UUID> existingOrderIds;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(wac).build();
+        customerId = customerRepository.findAll().getFirst().getId();
+
+        List<Beer> beers = beerRepository.findAll(PageRequest.of(0, 2)).getContent();
+        firstBeer = beers.get(0);
+        secondBeer = beers.get(1);
+        existingOrderIds = beerOrderRepository.findAll().stream().map(BeerOrder::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Orders commit in their own transactions, so remove them and put the stock back for the other tests sharing
+     * this context.
+     */
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> beerOrderRepository.findAll()
+                .stream()
+                .filter(beerOrder -> !existingOrderIds.contains(beerOrder.getId()))
+                .forEach(beerOrder -> {
+                    beerOrder.getBeerOrderLines().forEach(entityManager::remove);
+                    entityManager.remove(beerOrder);
+                }));
+
+        setStock(firstBeer, firstBeer.getQuantityOnHand());
+        setStock(secondBeer, secondBeer.getQuantityOnHand());
+    }
+
+    @Test
+    void testPlaceOrder() throws Exception {
+        setStock(firstBeer, 10);
+        long orders = beerOrderRepository.count();
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BeerOrderController.BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order(line(firstBeer, 3), line(firstBeer, 2)))))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().exists("Location"))
+                .andExpect(jsonPath("$.beerOrderLines.length()", is(1)))
+                .andExpect(jsonPath("$.beerOrderLines[0].quantityAllocated", is(5)));
+
+        assertThat(beerOrderRepository.count()).isEqualTo(orders + 1);
+        assertThat(stockOf(firstBeer)).isEqualTo(5);
+    }
+
+    @Test
+    void testOutOfStockAllocatesNothing() throws Exception {
+        setStock(firstBeer, 10);
+        setStock(secondBeer, 1);
+        long orders = beerOrderRepository.count();
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BeerOrderController.BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order(line(firstBeer, 4), line(secondBeer, 2)))))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(jsonPath("$.beerId", is(secondBeer.getId().toString())));
+
+        assertThat(beerOrderRepository.count()).isEqualTo(orders);
+        assertThat(stockOf(firstBeer)).isEqualTo(10);
+        assertThat(stockOf(secondBeer)).isEqualTo(1);
+    }
+
+    @Test
+    void testOverflowingQuantityIsRejected() throws Exception {
+        setStock(firstBeer, 10);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BeerOrderController.BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                order(line(firstBeer, Integer.MAX_VALUE), line(firstBeer, 2)))))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        assertThat(stockOf(firstBeer)).isEqualTo(10);
+    }
+
+    @Test
+    void testNullLineIsRejected() throws Exception {
+        BeerOrderCreateDTO order = order(line(firstBeer, 1));
+        order.setBeerOrderLines(Arrays.asList(line(firstBeer, 1), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BeerOrderController.BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void testUnknownCustomer() throws Exception {
+        BeerOrderCreateDTO order = order(line(firstBeer, 1));
+        order.setCustomerId(UUID.randomUUID());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BeerOrderController.BEER_ORDER_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void testConcurrentOrdersNeverOversell() throws Exception {
+        int stock = 20;
+        int orders = 40;
+        setStock(firstBeer, stock);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < orders; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        beerOrderController.placeOrder(order(line(firstBeer, 1)));
+                        return true;
+                    } catch (OutOfStockException e) {
+                        return false;
+                    }
+                }));
+            }
+
+            int placed = 0;
+            for (Future<Boolean> result : results) {
+                placed += result.get() ? 1 : 0;
+            }
+
+            assertThat(placed).isEqualTo(stock);
+            assertThat(stockOf(firstBeer)).isZero();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void setStock(Beer beer, int quantity) {
+        Beer found = beerRepository.findById(beer.getId()).orElseThrow();
+        found.setQuantityOnHand(quantity);
+        beerRepository.saveAndFlush(found);
+    }
+
+    private int stockOf(Beer beer) {
+        return beerRepository.findById(beer.getId()).orElseThrow().getQuantityOnHand();
+    }
+
+    private BeerOrderCreateDTO order(BeerOrderLineCreateDTO... lines) {
+        return BeerOrderCreateDTO.builder()
+                .customerId(customerId)
+                .customerRef("Test order")
+                .beerOrderLines(List.of(lines))
+                .build();
+    }
+
+    private static BeerOrderLineCreateDTO line(Beer beer, int quantity) {
+        return BeerOrderLineCreateDTO.builder()
+                .beerId(beer.getId())
+                .orderQuantity(quantity)
+                .build();
+    }
+}
@@ -3,10 +3,12 @@ package com.moh4lych.springdi.controller;
 import com.moh4lych.springdi.entities.Customer;
 import com.moh4lych.springdi.mappers.CustomerMapper;
 import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.repositories.CustomerRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.Rollback;
@@ -104,6 +106,19 @@ class CustomerControllerIT {
         assertThat(dtos.size()).isEqualTo(0);
     }
 
+    @Test
+    void testListCustomersSlice() {
+        Slice<CustomerDTO> first = customerController.listCustomersSlice(1, 2);
+        Slice<CustomerDTO> second = customerController.listCustomersSlice(2, 2);
+
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContent().getFirst().getId().toString())
+                .isGreaterThan(first.getContent().getLast().getId().toString());
+    }
+
     @Test
     void testListAll() {
         List<CustomerDTO> dtos = customerController.listAllCustomers();
@@ -111,6 +126,21 @@ class CustomerControllerIT {
         assertThat(dtos.size()).isEqualTo(3);
     }
 
+    @Test
+    void testListCustomersAfter() {
+        KeysetPage<CustomerDTO> first = customerController.listCustomersAfter(null, 2, true);
+
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.getTotalElements()).isEqualTo(3);
+        assertThat(first.getNext()).isNotNull();
+
+        KeysetPage<CustomerDTO> second = customerController.listCustomersAfter(UUID.fromString(first.getNext()), 2, false);
+
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.getNext()).isNull();
+        assertThat(second.getContent().getFirst().getId().toString()).isGreaterThan(first.getNext());
+    }
+
     @Test
     void testGetByIdNotFound() {
         assertThrows(NotFoundException.class, () -> {
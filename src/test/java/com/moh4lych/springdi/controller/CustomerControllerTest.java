@@ -3,6 +3,7 @@ package com.moh4lych.springdi.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moh4lych.springdi.config.SpringSecurityConfig;
 import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetPage;
 import com.moh4lych.springdi.services.CustomerService;
 import com.moh4lych.springdi.services.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +18,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +26,7 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
@@ -141,6 +144,23 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.length()", is(3)));
     }
 
+    @Test
+    void searchCustomersByEmail() throws Exception {
+        CustomerDTO customer = customerServiceImpl.getAllCustomers().get(0);
+        given(customerService.searchCustomers(isNull(), any(), isNull(), isNull()))
+                .willReturn(KeysetPage.<CustomerDTO>builder().content(List.of(customer)).build());
+
+        mockMvc.perform(get(CustomerController.CUSTOMER_PATH)
+                        .with(httpBasic("test", "test"))
+                        .queryParam("email", "customer@example.com")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is(customer.getId().toString())));
+
+        verify(customerService).searchCustomers(null, "customer@example.com", null, null);
+    }
+
     @Test
     void getCustomerByIdNotFound() throws Exception {
 
@@ -1,27 +1,46 @@
 package com.moh4lych.springdi.repositories;
 
+import com.moh4lych.springdi.benchmark.Benchmark;
+import com.moh4lych.springdi.benchmark.BenchmarkLog;
 import com.moh4lych.springdi.bootstrap.BootstrapData;
 import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapperImpl;
+import com.moh4lych.springdi.model.BeerDTO;
 import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.services.BeerBatchWriter;
+import com.moh4lych.springdi.services.BeerCSVParallelImporter;
 import com.moh4lych.springdi.services.BeerCSVServiceImpl;
+import com.moh4lych.springdi.services.BeerNameIndex;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
-@Import({BootstrapData.class, BeerCSVServiceImpl.class})
+@Import({BootstrapData.class, BeerCSVServiceImpl.class, BeerCSVRecordMapperImpl.class, BeerBatchWriter.class})
 class BeerRepositoryTest {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    TestEntityManager entityManager;
+
+    @MockitoBean
+    BeerCSVParallelImporter beerCSVParallelImporter;
+
     @Test
     void testFindAllByNameAndStyle() {
         Page<Beer> beers = beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA, null);
@@ -44,6 +63,44 @@ class BeerRepositoryTest {
         assertThat(beers.getContent().size()).isEqualTo(548);
     }
 
+    @Test
+    void testPatchBeerWithVersion() {
+        Beer beer = beerRepository.findAll().getFirst();
+        Integer version = beer.getVersion();
+
+        assertThat(beerRepository.patchBeer(beer.getId(), version + 1, "Stale", null, null, null, null,
+                LocalDateTime.now())).isEqualTo(0);
+        assertThat(beerRepository.patchBeer(beer.getId(), version, "Patched", null, null, null, 7,
+                LocalDateTime.now())).isEqualTo(1);
+
+        Beer patched = beerRepository.findById(beer.getId()).get();
+        assertThat(patched.getVersion()).isEqualTo(version + 1);
+        assertThat(patched.getBeerName()).isEqualTo("Patched");
+        assertThat(patched.getQuantityOnHand()).isEqualTo(7);
+        assertThat(patched.getBeerStyle()).isEqualTo(beer.getBeerStyle());
+        assertThat(patched.getUpc()).isEqualTo(beer.getUpc());
+    }
+
+    @Test
+    void testDeleteBeer() {
+        Beer beer = beerRepository.findAll().getFirst();
+
+        assertThat(beerRepository.deleteBeer(beer.getId())).isEqualTo(1);
+        assertThat(beerRepository.deleteBeer(beer.getId())).isEqualTo(0);
+        assertThat(beerRepository.findById(beer.getId())).isEmpty();
+    }
+
+    @Test
+    void testFindBeerDtosByNameAndStyle() {
+        Page<BeerDTO> beers = beerRepository.findBeerDtosByBeerNameLikeAndBeerStyle("%IPA%", BeerStyle.IPA,
+                PageRequest.of(0, 250));
+
+        assertThat(beers.getTotalElements()).isEqualTo(310);
+        assertThat(beers.getContent().size()).isEqualTo(250);
+        assertThat(beers.getContent().getFirst().getId()).isNotNull();
+        assertThat(beers.getContent().getFirst().getBeerStyle()).isEqualTo(BeerStyle.IPA);
+    }
+
     @Test
     void testSave() {
         Beer beer = beerRepository.save(Beer.builder()
@@ -73,4 +130,69 @@ class BeerRepositoryTest {
             beerRepository.flush();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Times substring searches answered by the trigram index against the leading-wildcard LIKE query the
+     * service falls back to, first at 100k and then at one million beers.
+     */
+    @Benchmark
+    void benchmarkNameIndexAgainstLike() {
+        BeerNameIndex beerNameIndex = new BeerNameIndex(beerRepository);
+        String[] needles = {"Beer 4242", "Tavern", "stout"};
+        int searches = 200;
+        int loaded = 0;
+
+        for (int beers : new int[]{100_000, 1_000_000}) {
+            loaded = insertBeers(loaded, beers);
+            beerNameIndex.rebuild();
+
+            for (String needle : needles) {
+                long start = System.nanoTime();
+                int indexMatches = 0;
+                for (int i = 0; i < searches; i++) {
+                    indexMatches = beerNameIndex.search(needle, null).size();
+                }
+                long indexNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long likeMatches = 0;
+                for (int i = 0; i < searches; i++) {
+                    likeMatches = beerRepository.findBeerDtosByBeerNameLike("%" + needle + "%",
+                            PageRequest.of(0, 25)).getTotalElements();
+                }
+                long likeNanos = System.nanoTime() - start;
+
+                assertThat((long) indexMatches).isEqualTo(likeMatches);
+                BenchmarkLog.report("{} beers, \"{}\" ({} matches): trigram index {} us, like {} us", loaded, needle,
+                        indexMatches, indexNanos / searches / 1000, likeNanos / searches / 1000);
+            }
+        }
+    }
+
+    private int insertBeers(int from, int to) {
+        String[] suffixes = {"Lager", "Tavern Ale", "Oatmeal Stout", "IPA"};
+        List<Beer> batch = new ArrayList<>();
+
+        for (int i = from; i < to; i++) {
+            batch.add(Beer.builder()
+                    .beerName("Beer " + i + " " + suffixes[i % suffixes.length])
+                    .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                    .upc("bench-" + i)
+                    .price(BigDecimal.TEN)
+                    .build());
+
+            if (batch.size() == 10_000) {
+                beerRepository.saveAll(batch);
+                entityManager.flush();
+                entityManager.clear();
+                batch.clear();
+            }
+        }
+
+        beerRepository.saveAll(batch);
+        entityManager.flush();
+        entityManager.clear();
+
+        return to;
+    }
+}
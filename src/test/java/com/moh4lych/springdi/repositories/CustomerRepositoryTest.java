@@ -1,11 +1,21 @@
 package com.moh4lych.springdi.repositories;
 
+import com.moh4lych.springdi.benchmark.Benchmark;
+import com.moh4lych.springdi.benchmark.BenchmarkLog;
 import com.moh4lych.springdi.entities.Customer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 class CustomerRepositoryTest {
@@ -13,6 +23,9 @@ class CustomerRepositoryTest {
     @Autowired
     CustomerRepository customerRepository;
 
+    @Autowired
+    TestEntityManager entityManager;
+
     @Test
     void testSaveCustomer() {
         Customer customer = customerRepository.save(Customer.builder()
@@ -22,4 +35,89 @@ class CustomerRepositoryTest {
         assertThat(customer.getId()).isNotNull();
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEmailIsUnique() {
+        customerRepository.saveAndFlush(Customer.builder().name("First").email("same@example.com").build());
+
+        assertThat(customerRepository.findByEmail("same@example.com")).isPresent();
+        assertThrows(DataIntegrityViolationException.class, () -> customerRepository
+                .saveAndFlush(Customer.builder().name("Second").email("same@example.com").build()));
+    }
+
+    @Test
+    void testFindByNameLikeAfter() {
+        customerRepository.saveAll(List.of(
+                Customer.builder().name("Anna").build(),
+                Customer.builder().name("Andrew").build(),
+                Customer.builder().name("Andrew").build(),
+                Customer.builder().name("Bob").build()));
+
+        List<Customer> first = customerRepository.findByNameLikeAfter("An%", "", new UUID(0L, 0L),
+                PageRequest.ofSize(2));
+        Customer last = first.getLast();
+        List<Customer> second = customerRepository.findByNameLikeAfter("An%", last.getName(), last.getId(),
+                PageRequest.ofSize(2));
+
+        assertThat(first).extracting(Customer::getName).containsExactly("Andrew", "Andrew");
+        assertThat(second).extracting(Customer::getName).containsExactly("Anna");
+    }
+
+    @Test
+    void testFindByNameLikeAfterTreatsWildcardsLiterally() {
+        customerRepository.saveAll(List.of(
+                Customer.builder().name("50% Off").build(),
+                Customer.builder().name("50 Percent").build(),
+                Customer.builder().name("a_b").build(),
+                Customer.builder().name("axb").build(),
+                Customer.builder().name("c!d").build(),
+                Customer.builder().name("cd").build()));
+
+        assertThat(customerRepository.findByNameLikeAfter(CustomerRepository.prefixPattern("50%"), "",
+                new UUID(0L, 0L), PageRequest.ofSize(10))).extracting(Customer::getName).containsExactly("50% Off");
+        assertThat(customerRepository.findByNameLikeAfter(CustomerRepository.prefixPattern("a_"), "",
+                new UUID(0L, 0L), PageRequest.ofSize(10))).extracting(Customer::getName).containsExactly("a_b");
+        assertThat(customerRepository.findByNameLikeAfter(CustomerRepository.prefixPattern("c!"), "",
+                new UUID(0L, 0L), PageRequest.ofSize(10))).extracting(Customer::getName).containsExactly("c!d");
+    }
+
+    /**
+     * Loads one million customers and times email lookups and first-page name prefix searches against the
+     * indexes.
+     */
+    @Benchmark
+    void benchmarkSearchAtMillionCustomers() {
+        int customers = 1_000_000;
+        List<Customer> batch = new ArrayList<>();
+
+        for (int i = 0; i < customers; i++) {
+            batch.add(Customer.builder().name("Customer " + i).email("customer" + i + "@example.com").build());
+
+            if (batch.size() == 10_000) {
+                customerRepository.saveAll(batch);
+                entityManager.flush();
+                entityManager.clear();
+                batch.clear();
+            }
+        }
+
+        int lookups = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertThat(customerRepository.findByEmail("customer" + (i * 97 % customers) + "@example.com"))
+                    .isPresent();
+        }
+        long emailNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertThat(customerRepository.findByNameLikeAfter(
+                    CustomerRepository.prefixPattern("Customer " + (i * 97 % customers)), "",
+                    new UUID(0L, 0L), PageRequest.ofSize(25))).isNotEmpty();
+        }
+        long nameNanos = System.nanoTime() - start;
+
+        BenchmarkLog.report("{} customers: email lookup {} us, name prefix page {} us", customers,
+                emailNanos / lookups / 1000, nameNanos / lookups / 1000);
+    }
+}
@@ -1,16 +1,28 @@
 package com.moh4lych.springdi.repositories;
 
+import com.moh4lych.springdi.benchmark.Benchmark;
+import com.moh4lych.springdi.benchmark.BenchmarkLog;
 import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.entities.TimeOrderedUuidGenerator;
+import com.moh4lych.springdi.model.BeerStyle;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -18,6 +30,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest
 @ActiveProfiles("localmysql")
 public class MySqlIT {
+    static final String SELECT_BEERS = "select id, version, beer_name, beer_style, upc, quantity_on_hand, price, "
+            + "created_date, update_date from beer";
+    static final String AFTER_CURSOR = " (beer_name > ? or (beer_name = ? and id > ?)) order by beer_name, id limit ?";
 
     @Container
     @ServiceConnection
@@ -26,10 +41,104 @@ public class MySqlIT {
     @Autowired
     BeerRepository beerRepository;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("analyze table beer");
+    }
+
     @Test
     void testListBeers() {
         List<Beer> beers = beerRepository.findAll();
 
         assertThat(beers.size()).isGreaterThan(0);
     }
-}
\ No newline at end of file
+
+    /**
+     * The statements below have the shape Hibernate generates for the BeerRepository keyset and filter queries.
+     */
+    @Test
+    void testStyleKeysetPageUsesStyleNameIndex() {
+        Map<String, Object> plan = explain(SELECT_BEERS + " where beer_style = ? and" + AFTER_CURSOR,
+                BeerStyle.IPA.ordinal(), "", "", new byte[16], 26);
+
+        assertThat(plan.get("key")).isEqualTo("beer_style_name_id_idx");
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    @Test
+    void testStyleCountUsesStyleNameIndex() {
+        Map<String, Object> plan = explain("select count(id) from beer where beer_style = ?", BeerStyle.IPA.ordinal());
+
+        assertThat(plan.get("key")).isEqualTo("beer_style_name_id_idx");
+        assertThat(String.valueOf(plan.get("Extra"))).contains("Using index");
+    }
+
+    @Test
+    void testKeysetPageUsesNameIndex() {
+        Map<String, Object> plan = explain(SELECT_BEERS + " where" + AFTER_CURSOR, "M", "M", new byte[16], 26);
+
+        assertThat(plan.get("key")).isEqualTo("beer_name_id_idx");
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    private Map<String, Object> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("explain " + sql, args).getFirst();
+    }
+
+    /**
+     * Inserts one million rows into a table with a secondary index for each key layout: random v4 ids as
+     * varchar(36), which is the layout before V7, random v4 ids as binary(16), and time-ordered ids as binary(16).
+     * Logs the insert throughput and the data and index sizes InnoDB reports.
+     */
+    @Benchmark
+    void benchmarkKeyLayouts() {
+        int rows = 1_000_000;
+
+        measureKeyLayout("varchar(36) v4", "varchar(36)", UUID::randomUUID, UUID::toString, rows);
+        measureKeyLayout("binary(16) v4", "binary(16)", UUID::randomUUID, MySqlIT::toBytes, rows);
+        measureKeyLayout("binary(16) v7", "binary(16)", TimeOrderedUuidGenerator::next, MySqlIT::toBytes, rows);
+    }
+
+    private void measureKeyLayout(String label, String keyType, Supplier<UUID> ids, Function<UUID, Object> toColumn,
+                                  int rows) {
+        jdbcTemplate.execute("drop table if exists key_layout_benchmark");
+        jdbcTemplate.execute("create table key_layout_benchmark (id " + keyType + " not null primary key, "
+                + "parent_id " + keyType + " not null, name varchar(50), index key_layout_parent_idx (parent_id)) "
+                + "engine=InnoDB");
+
+        List<Object[]> batch = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{toColumn.apply(ids.get()), toColumn.apply(ids.get()), "Row " + i});
+
+            if (batch.size() == 5_000) {
+                jdbcTemplate.batchUpdate("insert into key_layout_benchmark (id, parent_id, name) values (?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+
+        long millis = BenchmarkLog.elapsedMillis(start);
+        jdbcTemplate.execute("analyze table key_layout_benchmark");
+        Map<String, Object> sizes = jdbcTemplate.queryForMap("select data_length, index_length "
+                + "from information_schema.tables where table_schema = database() "
+                + "and table_name = 'key_layout_benchmark'");
+
+        BenchmarkLog.report("{}: {} rows/s, data {} MB, secondary index {} MB", label,
+                BenchmarkLog.perSecond(rows, millis),
+                ((Number) sizes.get("DATA_LENGTH")).longValue() >> 20,
+                ((Number) sizes.get("INDEX_LENGTH")).longValue() >> 20);
+        jdbcTemplate.execute("drop table key_layout_benchmark");
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
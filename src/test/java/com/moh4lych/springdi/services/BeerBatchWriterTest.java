@@ -0,0 +1,61 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapper;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapperImpl;
+import com.moh4lych.springdi.model.BeerCSVRecord;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({BeerBatchWriter.class, BeerCSVRecordMapperImpl.class})
+class BeerBatchWriterTest {
+    @Autowired
+    BeerBatchWriter beerBatchWriter;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerCSVRecordMapper beerCSVRecordMapper;
+
+    @Test
+    void testUpsertByUpc() {
+        BeerBatchWriter.UpsertResult first = beerBatchWriter.upsertByUpc(List.of(
+                beer(1, "Pub Beer", 10), beer(2, "Devil's Cup", 20)));
+
+        assertThat(first.inserted()).isEqualTo(2);
+        assertThat(first.updatedIds()).isEmpty();
+        assertThat(beerRepository.count()).isEqualTo(2);
+
+        BeerBatchWriter.UpsertResult second = beerBatchWriter.upsertByUpc(List.of(
+                beer(1, "Pub Beer", 10), beer(2, "Devil's Cup", 25), beer(3, "Rise of the Phoenix", 30)));
+
+        assertThat(second.inserted()).isEqualTo(1);
+        assertThat(second.unchanged()).isEqualTo(1);
+        assertThat(second.updatedIds()).hasSize(1);
+        assertThat(beerRepository.count()).isEqualTo(3);
+
+        Beer updated = beerRepository.findById(second.updatedIds().getFirst()).orElseThrow();
+        assertThat(updated.getUpc()).isEqualTo("2");
+        assertThat(updated.getQuantityOnHand()).isEqualTo(25);
+        assertThat(updated.getVersion()).isEqualTo(1);
+    }
+
+    private Beer beer(int row, String name, int count) {
+        BeerCSVRecord record = new BeerCSVRecord();
+        record.setRow(row);
+        record.setBeer(name);
+        record.setStyle("American IPA");
+        record.setCount(count);
+
+        return beerCSVRecordMapper.beerCsvRecordToBeer(record);
+    }
+}
@@ -0,0 +1,116 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapperImpl;
+import com.moh4lych.springdi.model.BeerStyle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BeerCSVParallelImporterTest {
+    BeerBatchWriter beerBatchWriter = mock(BeerBatchWriter.class);
+    BeerNameIndex beerNameIndex = mock(BeerNameIndex.class);
+    BeerCatalogGeneration beerCatalogGeneration = new BeerCatalogGeneration();
+
+    List<Beer> persisted = Collections.synchronizedList(new ArrayList<>());
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        when(beerBatchWriter.persistAll(ArgumentMatchers.<Collection<Beer>>any())).thenAnswer(invocation -> {
+            Collection<Beer> beers = invocation.getArgument(0);
+            persisted.addAll(beers);
+            return new ArrayList<>(beers);
+        });
+    }
+
+    @Test
+    void testImportsEveryRowOnce() throws IOException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beer.csv");
+
+        long imported = importer(DataSize.ofKilobytes(16)).importCSV(file);
+
+        assertThat(imported).isEqualTo(2410);
+        assertThat(persisted).hasSize(2410);
+        assertThat(persisted.stream().map(Beer::getUpc).distinct().count()).isEqualTo(2410);
+        assertThat(persisted.stream().filter(beer -> beer.getUpc().equals("1")).findFirst().orElseThrow())
+                .satisfies(beer -> {
+                    assertThat(beer.getBeerName()).isEqualTo("Pub Beer");
+                    assertThat(beer.getBeerStyle()).isEqualTo(BeerStyle.LAGER);
+                });
+        assertThat(beerCatalogGeneration.current())
+                .isEqualTo(mockingDetails(beerBatchWriter).getInvocations().size() + 1);
+        verify(beerNameIndex).rebuild();
+    }
+
+    @Test
+    void testChunksDoNotSplitQuotedNewlines() throws IOException {
+        Path file = tempDir.resolve("quoted.csv");
+        Files.writeString(file, "row,\"count.x\",\"beer\",\"style\"\n"
+                + "1,1,\"First\nLine\",\"American IPA\"\n"
+                + "2,2,\"Second, \"\"Quoted\"\"\",\"American Porter\"\n"
+                + "3,3,Third,American Stout");
+
+        long imported = importer(DataSize.ofBytes(1)).importCSV(file.toFile());
+
+        assertThat(imported).isEqualTo(3);
+        assertThat(persisted).extracting(Beer::getBeerName)
+                .containsExactlyInAnyOrder("First\nLine", "Second, \"Quoted\"", "Third");
+    }
+
+    @Test
+    void testFailedChunkStopsImportAndPublishesCommittedRows() throws IOException, InterruptedException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beer.csv");
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger committed = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (batches.incrementAndGet() == 3) {
+                throw new IllegalStateException("Lost connection");
+            }
+            // slow enough that a chunk still running after importCSV returns would be caught below
+            Thread.sleep(50);
+            committed.incrementAndGet();
+            return new ArrayList<Beer>(invocation.getArgument(0));
+        }).when(beerBatchWriter).persistAll(ArgumentMatchers.<Collection<Beer>>any());
+
+        assertThatThrownBy(() -> importer(DataSize.ofKilobytes(16)).importCSV(file))
+                .isInstanceOf(IllegalStateException.class);
+        int batchesAfterFailure = batches.get();
+        int committedAfterFailure = committed.get();
+        Thread.sleep(200);
+
+        assertThat(batches.get()).isEqualTo(batchesAfterFailure);
+        assertThat(committed.get()).isEqualTo(committedAfterFailure);
+        // one bump per committed batch plus the final one
+        assertThat(beerCatalogGeneration.current()).isEqualTo(committedAfterFailure + 1);
+        verify(beerNameIndex).rebuild();
+    }
+
+    private BeerCSVParallelImporter importer(DataSize chunkSize) {
+        return new BeerCSVParallelImporter(new BeerCSVServiceFastImpl(), new BeerCSVRecordMapperImpl(),
+                beerBatchWriter, beerCatalogGeneration, beerNameIndex, 4, chunkSize);
+    }
+}
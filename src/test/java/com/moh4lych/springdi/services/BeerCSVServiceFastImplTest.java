@@ -0,0 +1,111 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.benchmark.Benchmark;
+import com.moh4lych.springdi.benchmark.BenchmarkLog;
+import com.moh4lych.springdi.model.BeerCSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.ResourceUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BeerCSVServiceFastImplTest {
+    BeerCSVServiceFastImpl beerCSVService = new BeerCSVServiceFastImpl();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesOpenCsv() throws FileNotFoundException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beer.csv");
+        List<BeerCSVRecord> expected = new BeerCSVServiceImpl().convertCSV(file);
+        List<BeerCSVRecord> actual = beerCSVService.convertCSV(file);
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getRow()).isEqualTo(expected.get(i).getRow());
+            assertThat(actual.get(i).getCount()).isEqualTo(expected.get(i).getCount());
+            assertThat(actual.get(i).getBeer()).isEqualTo(expected.get(i).getBeer());
+            assertThat(actual.get(i).getStyle()).isEqualTo(expected.get(i).getStyle());
+        }
+    }
+
+    @Test
+    void testQuotedFieldsAndNA() {
+        String csv = "row,\"count.x\",\"ibu\",\"beer\",\"style\"\r\n"
+                + "\"1\",NA,NA,\"Pale, \"\"Hazy\"\" Ale\",\"American IPA\"\r\n"
+                + "\r\n"
+                + "2,7,35,\"Two\nLines\",Saison / Farmhouse Ale";
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(new StringReader(csv))) {
+            List<BeerCSVRecord> list = records.toList();
+
+            assertThat(list).hasSize(2);
+            assertThat(list.get(0).getRow()).isEqualTo(1);
+            assertThat(list.get(0).getCount()).isNull();
+            assertThat(list.get(0).getBeer()).isEqualTo("Pale, \"Hazy\" Ale");
+            assertThat(list.get(0).getStyle()).isEqualTo("American IPA");
+            assertThat(list.get(1).getRow()).isEqualTo(2);
+            assertThat(list.get(1).getCount()).isEqualTo(7);
+            assertThat(list.get(1).getBeer()).isEqualTo("Two\nLines");
+            assertThat(list.get(1).getStyle()).isEqualTo("Saison / Farmhouse Ale");
+        }
+    }
+
+    @Test
+    void testMalformedNumberSkipsOnlyThatRecord() {
+        String csv = "row,\"count.x\",\"beer\",\"style\"\n"
+                + "1x,10,\"Bad Row\",\"American IPA\"\n"
+                + "2,99999999999,\"Big Count\",\"American IPA\"\n"
+                + "3,30,\"Good Row\",\"American IPA\"\n";
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(new StringReader(csv))) {
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(MalformedCSVRecordException.class)
+                    .hasCauseInstanceOf(NumberFormatException.class);
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(MalformedCSVRecordException.class)
+                    .hasCauseInstanceOf(ArithmeticException.class);
+            assertThat(iterator.next().getBeer()).isEqualTo("Good Row");
+            assertThat(iterator.hasNext()).isFalse();
+        }
+    }
+
+    /**
+     * Compares this parser with the OpenCSV one on a synthetic one million row file.
+     */
+    @Benchmark
+    void benchmarkAgainstOpenCsv() throws IOException {
+        File file = BeerCSVServiceImplTest.writeSyntheticCsv(tempDir, 1_000_000);
+        BeerCSVService openCsv = new BeerCSVServiceImpl();
+
+        for (int round = 0; round < 3; round++) {
+            report("opencsv", file, openCsv::streamCSV);
+            report("fast", file, beerCSVService::streamCSV);
+        }
+    }
+
+    private static void report(String name, File file, Function<File, Stream<BeerCSVRecord>> parser) {
+        long start = System.nanoTime();
+        long rows;
+
+        try (Stream<BeerCSVRecord> records = parser.apply(file)) {
+            rows = records.count();
+        }
+
+        long elapsedMillis = BenchmarkLog.elapsedMillis(start);
+        BenchmarkLog.report("{}: {} rows in {} ms ({} rows/s)", name, rows, elapsedMillis,
+                BenchmarkLog.perSecond(rows, elapsedMillis));
+    }
+}
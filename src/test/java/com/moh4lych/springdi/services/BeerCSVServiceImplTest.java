@@ -1,18 +1,30 @@
 package com.moh4lych.springdi.services;
 
+import com.moh4lych.springdi.benchmark.Benchmark;
+import com.moh4lych.springdi.benchmark.BenchmarkLog;
 import com.moh4lych.springdi.model.BeerCSVRecord;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.util.ResourceUtils;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 class BeerCSVServiceImplTest {
     BeerCSVServiceImpl beerCSVService = new BeerCSVServiceImpl();
 
+    @TempDir
+    Path tempDir;
+
     @Test
     void checkConversion() throws FileNotFoundException {
         File file = ResourceUtils.getFile("classpath:csvdata/beer.csv");
@@ -21,4 +33,66 @@ class BeerCSVServiceImplTest {
         assertFalse(list.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void checkStreaming() throws FileNotFoundException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beer.csv");
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(file)) {
+            BeerCSVRecord first = records.findFirst().orElseThrow();
+
+            assertThat(first.getRow()).isEqualTo(1);
+            assertThat(first.getBeer()).isEqualTo("Pub Beer");
+            assertThat(first.getStyle()).isEqualTo("American Pale Lager");
+        }
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(file)) {
+            assertThat(records.count()).isEqualTo(beerCSVService.convertCSV(file).size());
+        }
+    }
+
+    /**
+     * Streams a synthetic one million row file built from csvdata/beer.csv.
+     */
+    @Benchmark
+    void benchmarkStreamingMillionRows() throws IOException {
+        File file = writeSyntheticCsv(tempDir, 1_000_000);
+        Runtime runtime = Runtime.getRuntime();
+        long maxUsedHeap = 0;
+        long rows = 0;
+        long start = System.nanoTime();
+
+        try (Stream<BeerCSVRecord> records = beerCSVService.streamCSV(file)) {
+            for (BeerCSVRecord ignored : (Iterable<BeerCSVRecord>) records::iterator) {
+                if (++rows % 10_000 == 0) {
+                    maxUsedHeap = Math.max(maxUsedHeap, runtime.totalMemory() - runtime.freeMemory());
+                }
+            }
+        }
+
+        long elapsedMillis = BenchmarkLog.elapsedMillis(start);
+        BenchmarkLog.report("streamCSV: {} rows in {} ms ({} rows/s), max sampled heap {} MB, file {} MB",
+                rows, elapsedMillis, BenchmarkLog.perSecond(rows, elapsedMillis), maxUsedHeap >> 20,
+                file.length() >> 20);
+
+        assertThat(rows).isEqualTo(1_000_000);
+    }
+
+    static File writeSyntheticCsv(Path tempDir, int rows) throws IOException {
+        List<String> lines = Files.readAllLines(ResourceUtils.getFile("classpath:csvdata/beer.csv").toPath());
+        List<String> data = lines.subList(1, lines.size());
+        Path target = tempDir.resolve("beer-" + rows + ".csv");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target)) {
+            writer.write(lines.getFirst());
+            writer.newLine();
+
+            for (int i = 0; i < rows; i++) {
+                String line = data.get(i % data.size());
+                writer.write("\"" + (i + 1) + "\"" + line.substring(line.indexOf(',')));
+                writer.newLine();
+            }
+        }
+
+        return target.toFile();
+    }
+}
@@ -0,0 +1,86 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerCacheTest {
+    SimpleMeterRegistry meterRegistry;
+    BeerCache beerCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beerCache = new BeerCache(meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testReadThrough() {
+        UUID id = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        beerCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.of(BeerDTO.builder().id(key).version(0).build());
+        });
+        Optional<BeerDTO> cached = beerCache.get(id, key -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(cached).isPresent();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStalePutIsRejected() {
+        UUID id = UUID.randomUUID();
+
+        beerCache.put(BeerDTO.builder().id(id).version(2).beerName("New").build());
+        beerCache.put(BeerDTO.builder().id(id).version(1).beerName("Old").build());
+
+        assertThat(beerCache.getIfPresent(id)).map(BeerDTO::getBeerName).contains("New");
+    }
+
+    @Test
+    void testCallersCannotMutateCachedEntries() {
+        UUID id = UUID.randomUUID();
+        BeerDTO put = BeerDTO.builder().id(id).version(1).beerName("Original").build();
+
+        beerCache.put(put);
+        put.setBeerName("Changed after put");
+        beerCache.getIfPresent(id).orElseThrow().setBeerName("Changed after get");
+        beerCache.get(id, key -> Optional.empty()).orElseThrow().setBeerName("Changed after hit");
+
+        assertThat(beerCache.getIfPresent(id)).map(BeerDTO::getBeerName).contains("Original");
+    }
+
+    @Test
+    void testLoadedEntryIsNotSharedWithCaller() {
+        UUID id = UUID.randomUUID();
+
+        beerCache.get(id, key -> Optional.of(BeerDTO.builder().id(key).version(0).beerName("Loaded").build()))
+                .orElseThrow().setBeerName("Changed after load");
+
+        assertThat(beerCache.getIfPresent(id)).map(BeerDTO::getBeerName).contains("Loaded");
+    }
+
+    @Test
+    void testEvict() {
+        UUID id = UUID.randomUUID();
+
+        beerCache.put(BeerDTO.builder().id(id).version(1).build());
+        beerCache.evict(id);
+
+        assertThat(beerCache.getIfPresent(id)).isEmpty();
+    }
+}
@@ -0,0 +1,221 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.entities.Beer;
+import com.moh4lych.springdi.mappers.BeerCSVRecordMapperImpl;
+import com.moh4lych.springdi.model.BeerImportJobDTO;
+import com.moh4lych.springdi.model.BeerImportStatus;
+import com.moh4lych.springdi.model.BeerNameView;
+import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BeerImportServiceImplTest {
+    BeerBatchWriter beerBatchWriter = mock(BeerBatchWriter.class);
+    BeerNameIndex beerNameIndex = mock(BeerNameIndex.class);
+    BeerCache beerCache = mock(BeerCache.class);
+    BeerCatalogGeneration beerCatalogGeneration = new BeerCatalogGeneration();
+    List<Beer> persisted = new ArrayList<>();
+
+    BeerImportServiceImpl beerImportService;
+
+    @BeforeEach
+    void setUp() {
+        when(beerBatchWriter.persistAll(ArgumentMatchers.<Collection<Beer>>any())).thenAnswer(invocation -> {
+            Collection<Beer> beers = invocation.getArgument(0);
+            persisted.addAll(beers);
+            return new ArrayList<>(beers);
+        });
+
+        beerImportService = new BeerImportServiceImpl(new BeerCSVServiceFastImpl(), new BeerCSVRecordMapperImpl(),
+                beerBatchWriter, beerCatalogGeneration, beerNameIndex, beerCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TaskExecutorAdapter(Runnable::run),
+                Duration.ofMinutes(1));
+    }
+
+    String csv = "row,\"count.x\",\"beer\",\"style\"\n"
+            + "1,10,\"Pub Beer\",\"American Pale Lager\"\n"
+            + "2,20,,\"American IPA\"\n"
+            + "3,30,\"Devil's Cup\",\"American Pale Ale (APA)\"\n";
+
+    @Test
+    void testImportCountsInsertedAndRejectedRows() {
+        BeerImportJobDTO started = beerImportService.startImport(
+                new MockMultipartFile("file", "beer.csv", "text/csv", csv.getBytes()), false);
+        BeerImportJobDTO job = beerImportService.getImportJob(started.getId()).orElseThrow();
+
+        assertThat(job.getStatus()).isEqualTo(BeerImportStatus.COMPLETED);
+        assertThat(job.getFileName()).isEqualTo("beer.csv");
+        assertThat(job.getRowsParsed()).isEqualTo(3);
+        assertThat(job.getRowsInserted()).isEqualTo(2);
+        assertThat(job.getRowsRejected()).isEqualTo(1);
+        assertThat(job.getFinishedDate()).isNotNull();
+        assertThat(persisted).extracting(Beer::getBeerName).containsExactly("Pub Beer", "Devil's Cup");
+        verify(beerNameIndex).rebuild();
+    }
+
+    @Test
+    void testMalformedNumbersAreRejected() {
+        String malformed = csv
+                + "4x,40,\"Bad Row\",\"American IPA\"\n"
+                + "5,99999999999,\"Big Count\",\"American IPA\"\n"
+                + "6,60,\"Good Row\",\"American IPA\"\n";
+
+        BeerImportJobDTO started = beerImportService.startImport(
+                new MockMultipartFile("file", "beer.csv", "text/csv", malformed.getBytes()), false);
+        BeerImportJobDTO job = beerImportService.getImportJob(started.getId()).orElseThrow();
+
+        assertThat(job.getStatus()).isEqualTo(BeerImportStatus.COMPLETED);
+        assertThat(job.getRowsParsed()).isEqualTo(6);
+        assertThat(job.getRowsInserted()).isEqualTo(3);
+        assertThat(job.getRowsRejected()).isEqualTo(3);
+        assertThat(persisted).extracting(Beer::getBeerName).containsExactly("Pub Beer", "Devil's Cup", "Good Row");
+    }
+
+    @Test
+    void testEachCommittedBatchBumpsGeneration() {
+        StringBuilder rows = new StringBuilder("row,\"count.x\",\"beer\",\"style\"\n");
+        for (int i = 1; i <= 1001; i++) {
+            rows.append(i).append(",1,\"Beer ").append(i).append("\",\"American IPA\"\n");
+        }
+        List<Long> generations = new ArrayList<>();
+        doAnswer(invocation -> {
+            generations.add(beerCatalogGeneration.current());
+            return new ArrayList<Beer>(invocation.getArgument(0));
+        }).when(beerBatchWriter).persistAll(ArgumentMatchers.<Collection<Beer>>any());
+
+        beerImportService.startImport(
+                new MockMultipartFile("file", "beer.csv", "text/csv", rows.toString().getBytes()), false);
+
+        assertThat(generations).containsExactly(0L, 1L);
+        assertThat(beerCatalogGeneration.current()).isEqualTo(3);
+    }
+
+    @Test
+    void testErrorMarksJobFailed() {
+        List<Runnable> tasks = new ArrayList<>();
+        BeerImportServiceImpl service = new BeerImportServiceImpl(new BeerCSVServiceFastImpl(),
+                new BeerCSVRecordMapperImpl(), beerBatchWriter, new BeerCatalogGeneration(), beerNameIndex, beerCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TaskExecutorAdapter(tasks::add),
+                Duration.ofMinutes(1));
+        doThrow(new OutOfMemoryError("Java heap space")).when(beerBatchWriter)
+                .persistAll(ArgumentMatchers.<Collection<Beer>>any());
+
+        BeerImportJobDTO started = service.startImport(
+                new MockMultipartFile("file", "beer.csv", "text/csv", csv.getBytes()), false);
+        assertThatThrownBy(() -> tasks.getFirst().run()).isInstanceOf(OutOfMemoryError.class);
+
+        assertThat(service.getImportJob(started.getId()).orElseThrow().getStatus())
+                .isEqualTo(BeerImportStatus.FAILED);
+    }
+
+    @Test
+    void testRejectedImportDeletesUpload() {
+        BeerImportServiceImpl service = new BeerImportServiceImpl(new BeerCSVServiceFastImpl(),
+                new BeerCSVRecordMapperImpl(), beerBatchWriter, new BeerCatalogGeneration(), beerNameIndex, beerCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TaskExecutorAdapter(task -> {
+                    throw new RejectedExecutionException("queue full");
+                }), Duration.ofMinutes(1));
+        AtomicReference<Path> upload = new AtomicReference<>();
+        MockMultipartFile file = new MockMultipartFile("file", "beer.csv", "text/csv", csv.getBytes()) {
+            @Override
+            public void transferTo(Path dest) throws IOException, IllegalStateException {
+                upload.set(dest);
+                super.transferTo(dest);
+            }
+        };
+
+        assertThatThrownBy(() -> service.startImport(file, false)).isInstanceOf(RejectedExecutionException.class);
+
+        assertThat(upload.get()).isNotNull();
+        assertThat(Files.exists(upload.get())).isFalse();
+    }
+
+    @Test
+    void testIncrementalImportEvictsUpdatedBeers() {
+        UUID updatedId = UUID.randomUUID();
+        Beer updated = Beer.builder().id(updatedId).beerName("Pub Beer").beerStyle(BeerStyle.LAGER).build();
+        when(beerBatchWriter.upsertByUpc(ArgumentMatchers.any()))
+                .thenReturn(new BeerBatchWriter.UpsertResult(0, List.of(updated), 1));
+
+        BeerImportJobDTO started = beerImportService.startImport(
+                new MockMultipartFile("file", "beer.csv", "text/csv", csv.getBytes()), true);
+        BeerImportJobDTO job = beerImportService.getImportJob(started.getId()).orElseThrow();
+
+        assertThat(job.getStatus()).isEqualTo(BeerImportStatus.COMPLETED);
+        assertThat(job.isIncremental()).isTrue();
+        assertThat(job.getRowsInserted()).isZero();
+        assertThat(job.getRowsUpdated()).isEqualTo(1);
+        assertThat(job.getRowsUnchanged()).isEqualTo(1);
+        assertThat(persisted).isEmpty();
+        verify(beerCache).evict(updatedId);
+        verify(beerNameIndex).rebuild();
+    }
+
+    @Test
+    void testIncrementalImportReindexesRenamedBeer() {
+        UUID beerId = UUID.randomUUID();
+        BeerRepository beerRepository = mock(BeerRepository.class);
+        when(beerRepository.streamAllNames())
+                .thenAnswer(invocation -> Stream.of(nameView(beerId, "Pub Beer")))
+                .thenAnswer(invocation -> Stream.of(nameView(beerId, "Tavern Beer")));
+        BeerNameIndex realIndex = new BeerNameIndex(beerRepository);
+        realIndex.rebuild();
+
+        Beer renamed = Beer.builder().id(beerId).beerName("Tavern Beer").beerStyle(BeerStyle.LAGER).build();
+        when(beerBatchWriter.upsertByUpc(ArgumentMatchers.any()))
+                .thenReturn(new BeerBatchWriter.UpsertResult(0, List.of(renamed), 0));
+        BeerImportServiceImpl service = new BeerImportServiceImpl(new BeerCSVServiceFastImpl(),
+                new BeerCSVRecordMapperImpl(), beerBatchWriter, new BeerCatalogGeneration(), realIndex, beerCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TaskExecutorAdapter(Runnable::run),
+                Duration.ofMinutes(1));
+
+        service.startImport(new MockMultipartFile("file", "beer.csv", "text/csv", csv.getBytes()), true);
+
+        assertThat(realIndex.search("Tavern", null)).containsExactly(beerId);
+        assertThat(realIndex.search("Pub Beer", null)).isEmpty();
+    }
+
+    private static BeerNameView nameView(UUID id, String beerName) {
+        return new BeerNameView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getBeerName() {
+                return beerName;
+            }
+
+            @Override
+            public BeerStyle getBeerStyle() {
+                return BeerStyle.LAGER;
+            }
+        };
+    }
+}
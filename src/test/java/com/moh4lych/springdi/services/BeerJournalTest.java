@@ -0,0 +1,113 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerDTO;
+import com.moh4lych.springdi.model.BeerStyle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecoverAfterRestart() throws IOException {
+        BeerJournal journal = journal(DataSize.ofMegabytes(1), DataSize.ofMegabytes(64));
+        BeerServiceImpl beerService = new BeerServiceImpl(journal);
+
+        BeerDTO saved = beerService.saveNewBeer(beer("Restart Ale"));
+        beerService.patchBeerById(saved.getId(), BeerDTO.builder().quantityOnHand(7).build(), null);
+        UUID deletedId = beerService.listBeers("Crank", null, null, null).getContent().getFirst().getId();
+        beerService.deleteBeerById(deletedId);
+        journal.close();
+
+        BeerServiceImpl recovered = new BeerServiceImpl(journal(DataSize.ofMegabytes(1), DataSize.ofMegabytes(64)));
+
+        assertThat(recovered.listBeers(null, null, null, 100).getContent())
+                .extracting(BeerDTO::getBeerName)
+                .containsExactly("Galaxy Cat", "Restart Ale", "Sunshine City");
+        BeerDTO restored = recovered.getBeerById(saved.getId()).orElseThrow();
+        assertThat(restored.getQuantityOnHand()).isEqualTo(7);
+        assertThat(restored.getVersion()).isEqualTo(1);
+        assertThat(restored.getPrice()).isEqualByComparingTo("4.50");
+        assertThat(recovered.getBeerById(deletedId)).isEmpty();
+    }
+
+    @Test
+    void testCheckpointCompactsLog() throws IOException {
+        BeerJournal journal = journal(DataSize.ofKilobytes(4), DataSize.ofKilobytes(8));
+        BeerServiceImpl beerService = new BeerServiceImpl(journal);
+        BeerDTO saved = beerService.saveNewBeer(beer("Checkpoint Porter"));
+
+        for (int i = 0; i < 500; i++) {
+            beerService.patchBeerById(saved.getId(), BeerDTO.builder().quantityOnHand(i).build(), null);
+        }
+        journal.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            List<String> names = files.map(path -> path.getFileName().toString()).toList();
+            assertThat(names).filteredOn(name -> name.startsWith("snapshot-")).hasSize(1);
+            assertThat(names).filteredOn(name -> name.startsWith("wal-")).hasSizeLessThan(5);
+        }
+
+        BeerServiceImpl recovered = new BeerServiceImpl(journal(DataSize.ofKilobytes(4), DataSize.ofKilobytes(8)));
+
+        assertThat(recovered.getBeerById(saved.getId()).orElseThrow().getQuantityOnHand()).isEqualTo(499);
+        assertThat(recovered.listBeers(null, null, null, 100).getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void testRecoveryStopsAtTornRecord() throws IOException {
+        BeerJournal journal = journal(DataSize.ofKilobytes(64), DataSize.ofMegabytes(64));
+        BeerServiceImpl beerService = new BeerServiceImpl(journal);
+        BeerDTO saved = beerService.saveNewBeer(beer("Torn Tripel"));
+        journal.close();
+
+        Path segment = dir.resolve("wal-0.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            channel.read(buffer, 0);
+            int position = 0;
+            int last = 0;
+
+            while (buffer.getInt(position) > 0) {
+                last = position;
+                position += Integer.BYTES * 2 + buffer.getInt(position);
+            }
+
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), last + Integer.BYTES * 2 + 1);
+        }
+
+        BeerServiceImpl recovered = new BeerServiceImpl(journal(DataSize.ofKilobytes(64), DataSize.ofMegabytes(64)));
+
+        assertThat(recovered.getBeerById(saved.getId())).isEmpty();
+        assertThat(recovered.listBeers(null, null, null, 100).getTotalElements()).isEqualTo(3);
+    }
+
+    private BeerJournal journal(DataSize segmentSize, DataSize checkpointAfter) {
+        return new BeerJournal(dir, segmentSize, checkpointAfter);
+    }
+
+    private static BeerDTO beer(String beerName) {
+        return BeerDTO.builder()
+                .beerName(beerName)
+                .beerStyle(BeerStyle.ALE)
+                .upc("4711")
+                .price(new BigDecimal("4.50"))
+                .quantityOnHand(12)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerDTO;
+import com.moh4lych.springdi.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerListCacheTest {
+    BeerCatalogGeneration beerCatalogGeneration;
+    BeerListCache beerListCache;
+    AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        beerCatalogGeneration = new BeerCatalogGeneration();
+        beerListCache = new BeerListCache(beerCatalogGeneration, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testSameQueryIsServedFromCache() {
+        list("IPA", 1);
+        list("IPA", 1);
+        list("IPA", 2);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testGenerationBumpInvalidates() {
+        list("IPA", 1);
+        beerCatalogGeneration.bump();
+        list("IPA", 1);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private Page<BeerDTO> list(String beerName, Integer pageNumber) {
+        return beerListCache.get(beerName, BeerStyle.IPA, pageNumber, 25, () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of());
+        });
+    }
+}
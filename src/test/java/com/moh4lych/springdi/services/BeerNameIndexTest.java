@@ -0,0 +1,93 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerNameView;
+import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.repositories.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BeerNameIndexTest {
+    BeerNameIndex beerNameIndex;
+
+    UUID galaxyCat = UUID.randomUUID();
+    UUID sunshineCity = UUID.randomUUID();
+    UUID hazyIpa = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        beerNameIndex = new BeerNameIndex(mock(BeerRepository.class));
+        beerNameIndex.rebuild();
+
+        beerNameIndex.index(galaxyCat, "Galaxy Cat", BeerStyle.PALE_ALE);
+        beerNameIndex.index(sunshineCity, "Sunshine City", BeerStyle.IPA);
+        beerNameIndex.index(hazyIpa, "Hazy City IPA", BeerStyle.IPA);
+    }
+
+    @Test
+    void testSearchIgnoresCase() {
+        assertThat(beerNameIndex.search("CITY", null)).containsExactly(hazyIpa, sunshineCity);
+    }
+
+    @Test
+    void testSearchByNameAndStyle() {
+        assertThat(beerNameIndex.search("axy", null)).containsExactly(galaxyCat);
+        assertThat(beerNameIndex.search("axy", BeerStyle.IPA)).isEmpty();
+    }
+
+    @Test
+    void testReindexAndRemove() {
+        beerNameIndex.index(galaxyCat, "Galaxy City", BeerStyle.PALE_ALE);
+        beerNameIndex.remove(sunshineCity);
+
+        assertThat(beerNameIndex.search("city", null)).containsExactly(galaxyCat, hazyIpa);
+        assertThat(beerNameIndex.search("cat", null)).isEmpty();
+    }
+
+    @Test
+    void testRebuildReindexesChangedBeers() {
+        BeerRepository beerRepository = mock(BeerRepository.class);
+        when(beerRepository.streamAllNames())
+                .thenAnswer(invocation -> Stream.of(nameView(galaxyCat, "Galaxy Cat", BeerStyle.PALE_ALE)))
+                .thenAnswer(invocation -> Stream.of(nameView(galaxyCat, "Nebula Dog", BeerStyle.STOUT)));
+        BeerNameIndex index = new BeerNameIndex(beerRepository);
+
+        index.rebuild();
+        index.rebuild();
+
+        assertThat(index.search("Galaxy", null)).isEmpty();
+        assertThat(index.search("Nebula", BeerStyle.STOUT)).containsExactly(galaxyCat);
+    }
+
+    @Test
+    void testCanSearch() {
+        assertThat(beerNameIndex.canSearch("IPA")).isTrue();
+        assertThat(beerNameIndex.canSearch("IP")).isFalse();
+        assertThat(beerNameIndex.canSearch("IP%A")).isFalse();
+    }
+
+    private static BeerNameView nameView(UUID id, String beerName, BeerStyle beerStyle) {
+        return new BeerNameView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getBeerName() {
+                return beerName;
+            }
+
+            @Override
+            public BeerStyle getBeerStyle() {
+                return beerStyle;
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.BeerDTO;
+import com.moh4lych.springdi.model.BeerStyle;
+import com.moh4lych.springdi.model.KeysetCursor;
+import com.moh4lych.springdi.model.KeysetPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerServiceImplTest {
+    BeerServiceImpl beerService = new BeerServiceImpl();
+
+    @Test
+    void testListBeersFiltersAndPages() {
+        beerService.saveNewBeer(beer("Galaxy IPA", BeerStyle.IPA));
+        beerService.saveNewBeer(beer("Another IPA", BeerStyle.IPA));
+
+        Page<BeerDTO> all = beerService.listBeers(null, null, 1, 2);
+        assertThat(all.getTotalElements()).isEqualTo(5);
+        assertThat(all.getContent()).extracting(BeerDTO::getBeerName).containsExactly("Another IPA", "Crank");
+
+        Page<BeerDTO> ipas = beerService.listBeers("ipa", BeerStyle.IPA, null, null);
+        assertThat(ipas.getContent()).extracting(BeerDTO::getBeerName).containsExactly("Another IPA", "Galaxy IPA");
+
+        Page<BeerDTO> galaxy = beerService.listBeers("GALAXY", null, null, null);
+        assertThat(galaxy.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void testListBeersAfterCursor() {
+        KeysetPage<BeerDTO> first = beerService.listBeersAfter(null, null, null, 2, true);
+        assertThat(first.getContent()).extracting(BeerDTO::getBeerName).containsExactly("Crank", "Galaxy Cat");
+        assertThat(first.getTotalElements()).isEqualTo(3);
+
+        KeysetPage<BeerDTO> second = beerService.listBeersAfter(null, null, KeysetCursor.valueOf(first.getNext()),
+                2, false);
+        assertThat(second.getContent()).extracting(BeerDTO::getBeerName).containsExactly("Sunshine City");
+        assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    void testListBeersAfterIgnoresNonPositivePageSize() {
+        assertThat(beerService.listBeersAfter(null, null, null, 0, false).getContent()).hasSize(3);
+        assertThat(beerService.listBeersAfter(null, null, null, -1, false).getContent()).hasSize(3);
+    }
+
+    @Test
+    void testPatchMovesIndexEntries() {
+        BeerDTO saved = beerService.saveNewBeer(beer("Pale Rider", BeerStyle.PALE_ALE));
+
+        beerService.patchBeerById(saved.getId(), BeerDTO.builder().beerName("Zulu Stout")
+                .beerStyle(BeerStyle.STOUT).build(), saved.getVersion());
+
+        assertThat(beerService.listBeers("pale rider", null, null, null).getContent()).isEmpty();
+        assertThat(beerService.listBeers(null, BeerStyle.PALE_ALE, null, null).getContent())
+                .extracting(BeerDTO::getId).doesNotContain(saved.getId());
+        assertThat(beerService.listBeers("zulu", BeerStyle.STOUT, null, null).getContent())
+                .extracting(BeerDTO::getVersion).containsExactly(1);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> beerService.patchBeerById(saved.getId(),
+                BeerDTO.builder().quantityOnHand(1).build(), saved.getVersion()));
+    }
+
+    @Test
+    void testReadsReturnCopies() {
+        BeerDTO saved = beerService.saveNewBeer(beer("Copy Cat", BeerStyle.LAGER));
+
+        beerService.getBeerById(saved.getId()).orElseThrow().setBeerName("Mutated");
+        beerService.listBeers(null, BeerStyle.LAGER, null, null).getContent().getFirst().setBeerStyle(BeerStyle.IPA);
+
+        BeerDTO stored = beerService.getBeerById(saved.getId()).orElseThrow();
+        assertThat(stored.getBeerName()).isEqualTo("Copy Cat");
+        assertThat(stored.getBeerStyle()).isEqualTo(BeerStyle.LAGER);
+        assertThat(beerService.getBeerById(UUID.randomUUID())).isEmpty();
+        assertThat(beerService.deleteBeerById(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void testConcurrentWritesKeepIndexesConsistent() throws Exception {
+        int writers = 4;
+        int readers = 4;
+        int iterations = 2_000;
+        BeerStyle[] styles = BeerStyle.values();
+        List<UUID> ids = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            ids.add(beerService.saveNewBeer(beer("Beer " + i, styles[i % styles.length])).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < iterations; i++) {
+                    UUID id = ids.get(random.nextInt(ids.size()));
+                    BeerDTO patch = BeerDTO.builder()
+                            .beerName("Beer " + random.nextInt(1_000))
+                            .beerStyle(styles[random.nextInt(styles.length)])
+                            .build();
+                    beerService.patchBeerById(id, patch, null);
+                }
+                return null;
+            }));
+        }
+
+        for (int r = 0; r < readers; r++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < iterations; i++) {
+                    BeerStyle style = styles[random.nextInt(styles.length)];
+                    List<BeerDTO> page = beerService.listBeers(null, style, null, 100).getContent();
+                    Set<UUID> seen = new HashSet<>();
+
+                    for (BeerDTO beerDTO : page) {
+                        if (beerDTO.getBeerStyle() != style) {
+                            violations.add("wrong style " + beerDTO);
+                        }
+                        if (!seen.add(beerDTO.getId())) {
+                            violations.add("duplicate " + beerDTO.getId());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(violations).isEmpty();
+
+        long indexed = 0;
+        for (BeerStyle style : styles) {
+            List<BeerDTO> beers = beerService.listBeers(null, style, null, 1_000).getContent();
+            assertThat(beers).allMatch(beerDTO -> beerDTO.getBeerStyle() == style);
+            indexed += beers.size();
+        }
+
+        assertThat(indexed).isEqualTo(ids.size() + 3);
+        assertThat(beerService.listBeers(null, null, null, 1_000).getContent()).hasSize(ids.size() + 3);
+        for (UUID id : ids) {
+            assertThat(beerService.getBeerById(id).orElseThrow().getVersion()).isPositive();
+        }
+    }
+
+    private static BeerDTO beer(String beerName, BeerStyle beerStyle) {
+        return BeerDTO.builder()
+                .beerName(beerName)
+                .beerStyle(beerStyle)
+                .upc("123")
+                .price(new BigDecimal("9.99"))
+                .quantityOnHand(10)
+                .build();
+    }
+}
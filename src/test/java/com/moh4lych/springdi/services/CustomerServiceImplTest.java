@@ -0,0 +1,67 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.model.CustomerDTO;
+import com.moh4lych.springdi.model.KeysetPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerServiceImplTest {
+    CustomerServiceImpl customerService = new CustomerServiceImpl();
+
+    @Test
+    void testListCustomersAfterPagesInIdOrder() {
+        for (int i = 0; i < 50; i++) {
+            customerService.saveNewCustomer(CustomerDTO.builder().name("Customer " + i).build());
+        }
+        List<UUID> expected = customerService.getAllCustomers().stream()
+                .map(CustomerDTO::getId)
+                .sorted(Comparator.comparing(UUID::toString))
+                .toList();
+
+        List<UUID> paged = new ArrayList<>();
+        UUID after = null;
+        KeysetPage<CustomerDTO> page;
+        do {
+            page = customerService.listCustomersAfter(after, 7, false);
+            page.getContent().forEach(customer -> paged.add(customer.getId()));
+            after = page.getNext() == null ? null : UUID.fromString(page.getNext());
+        } while (after != null);
+
+        assertThat(expected).hasSize(53);
+        assertThat(customerService.getAllCustomers()).extracting(CustomerDTO::getId)
+                .containsExactlyElementsOf(expected);
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testListCustomersSlice() {
+        List<CustomerDTO> customers = customerService.getAllCustomers();
+
+        Slice<CustomerDTO> first = customerService.listCustomersSlice(null, 2);
+        Slice<CustomerDTO> second = customerService.listCustomersSlice(2, 2);
+
+        assertThat(first.getContent()).containsExactlyElementsOf(customers.subList(0, 2));
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).containsExactly(customers.get(2));
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void testDeletedCustomerLeavesThePages() {
+        List<CustomerDTO> customers = customerService.getAllCustomers();
+        customerService.deleteCustomerById(customers.get(1).getId());
+
+        KeysetPage<CustomerDTO> page = customerService.listCustomersAfter(customers.getFirst().getId(), 10, true);
+
+        assertThat(page.getContent()).extracting(CustomerDTO::getId).containsExactly(customers.get(2).getId());
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getNext()).isNull();
+    }
+}
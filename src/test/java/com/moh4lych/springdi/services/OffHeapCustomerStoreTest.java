@@ -0,0 +1,151 @@
+package com.moh4lych.springdi.services;
+
+import com.moh4lych.springdi.benchmark.Benchmark;
+import com.moh4lych.springdi.benchmark.BenchmarkLog;
+import com.moh4lych.springdi.model.CustomerDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapCustomerStoreTest {
+    OffHeapCustomerStore customerStore = new OffHeapCustomerStore();
+
+    @AfterEach
+    void tearDown() {
+        customerStore.close();
+    }
+
+    @Test
+    void testRoundTrip() {
+        LocalDateTime created = LocalDateTime.of(2024, 2, 29, 13, 45, 10, 123_456_789);
+        CustomerDTO customer = CustomerDTO.builder()
+                .id(UUID.randomUUID())
+                .name("Zoë Brauerei")
+                .email("zoe@example.com")
+                .version(3)
+                .createdDate(created)
+                .build();
+        CustomerDTO longName = CustomerDTO.builder()
+                .id(UUID.randomUUID())
+                .name("x".repeat(200))
+                .email("y".repeat(60) + "@example.com")
+                .build();
+
+        customerStore.put(customer);
+        customerStore.put(longName);
+
+        assertThat(customerStore.get(customer.getId())).contains(customer);
+        assertThat(customerStore.get(longName.getId())).contains(longName);
+        assertThat(customerStore.get(UUID.randomUUID())).isEmpty();
+
+        customerStore.update(longName.getId(), existing -> {
+            existing.setName("Short");
+            return existing;
+        });
+        assertThat(customerStore.get(longName.getId()).orElseThrow().getName()).isEqualTo("Short");
+        assertThat(customerStore.get(longName.getId()).orElseThrow().getEmail()).isEqualTo(longName.getEmail());
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomWrites() {
+        Map<UUID, CustomerDTO> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < 50_000; i++) {
+            if (!ids.isEmpty() && random.nextInt(4) == 0) {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                assertThat(customerStore.remove(id)).isTrue();
+                expected.remove(id);
+                continue;
+            }
+
+            CustomerDTO customer = customer(i);
+            customerStore.put(customer);
+            expected.put(customer.getId(), customer);
+            ids.add(customer.getId());
+        }
+
+        assertThat(customerStore.size()).isEqualTo(expected.size());
+        assertThat(customerStore.values()).containsExactlyInAnyOrderElementsOf(expected.values());
+        for (UUID id : ids) {
+            assertThat(customerStore.get(id)).contains(expected.get(id));
+        }
+    }
+
+    /**
+     * Loads five million customers into each store and logs the heap retained after a full GC together with
+     * the collections and collection time spent loading. Needs a heap of 4g or more.
+     */
+    @Benchmark
+    void benchmarkAgainstHeapStore() {
+        int customers = 5_000_000;
+
+        measure("heap", CustomerStore::onHeap, customers);
+        measure("off-heap", OffHeapCustomerStore::new, customers);
+    }
+
+    private static void measure(String label, Supplier<CustomerStore> factory, int customers) {
+        long heapBefore = usedHeapAfterGc();
+        long[] gcBefore = gcCountAndMillis();
+
+        try (CustomerStore store = factory.get()) {
+            for (int i = 0; i < customers; i++) {
+                store.put(customer(i));
+            }
+
+            long[] gcAfter = gcCountAndMillis();
+            long heapAfter = usedHeapAfterGc();
+            long start = System.nanoTime();
+            System.gc();
+            long fullGcMillis = BenchmarkLog.elapsedMillis(start);
+
+            BenchmarkLog.report("{}: {} customers, {} MB retained heap, {} collections taking {} ms while loading, "
+                            + "full GC {} ms", label, store.size(), (heapAfter - heapBefore) >> 20,
+                    gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1], fullGcMillis);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long[] gcCountAndMillis() {
+        long count = 0;
+        long millis = 0;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+
+        return new long[]{count, millis};
+    }
+
+    private static CustomerDTO customer(int i) {
+        LocalDateTime now = LocalDateTime.now();
+
+        return CustomerDTO.builder()
+                .id(UUID.randomUUID())
+                .name("Customer " + i)
+                .email("customer" + i + "@example.com")
+                .version(1)
+                .createdDate(now)
+                .updateDate(now)
+                .build();
+    }
+}